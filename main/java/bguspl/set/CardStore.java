@@ -0,0 +1,123 @@
+package bguspl.set;
+
+import java.util.Arrays;
+
+/**
+ * A set of card ids backed by primitive arrays (no boxing).
+ * Adding, removing and looking up a card are O(1): removal swaps the last card into the removed card's position.
+ * Note: this class is not thread safe.
+ *
+ * @inv position[cards[i]] == i for every 0 <= i < size
+ */
+public class CardStore {
+
+    /**
+     * The position of a card that is not in the store.
+     */
+    private static final int ABSENT = -1;
+
+    /**
+     * The cards in the store (only the first size entries are used).
+     */
+    private final int[] cards;
+
+    /**
+     * The position of each card in the cards array (ABSENT if the card is not in the store).
+     */
+    private final int[] position;
+
+    /**
+     * The number of cards in the store.
+     */
+    private int size;
+
+    /**
+     * Creates an empty store.
+     *
+     * @param deckSize - the number of card ids (cards are 0 to deckSize - 1).
+     */
+    public CardStore(int deckSize) {
+        cards = new int[deckSize];
+        position = new int[deckSize];
+        Arrays.fill(position, ABSENT);
+    }
+
+    /**
+     * Creates a store holding all the cards of the deck.
+     *
+     * @param deckSize - the number of card ids (cards are 0 to deckSize - 1).
+     * @return - the new store.
+     */
+    public static CardStore fullDeck(int deckSize) {
+        CardStore store = new CardStore(deckSize);
+        for (int card = 0; card < deckSize; ++card)
+            store.add(card);
+        return store;
+    }
+
+    /**
+     * @param card - the card to add.
+     * @return - true iff the card was not already in the store.
+     */
+    public boolean add(int card) {
+        if (position[card] != ABSENT) return false;
+        position[card] = size;
+        cards[size++] = card;
+        return true;
+    }
+
+    /**
+     * @param card - the card to remove.
+     * @return - true iff the card was in the store.
+     */
+    public boolean remove(int card) {
+        int i = position[card];
+        if (i == ABSENT) return false;
+        cards[i] = cards[--size];
+        position[cards[i]] = i;
+        position[card] = ABSENT;
+        return true;
+    }
+
+    /**
+     * @param card - the card to look for.
+     * @return - true iff the card is in the store.
+     */
+    public boolean contains(int card) {
+        return card >= 0 && card < position.length && position[card] != ABSENT;
+    }
+
+    /**
+     * @param index - a position in the store (0 to size - 1).
+     * @return - the card in the position.
+     */
+    public int get(int index) {
+        if (index >= size) throw new IndexOutOfBoundsException("index " + index + " size " + size);
+        return cards[index];
+    }
+
+    /**
+     * @return - the number of cards in the store.
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return - the number of card ids the store can hold.
+     */
+    public int deckSize() {
+        return position.length;
+    }
+
+    /**
+     * @return - a copy of the cards in the store.
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(cards, size);
+    }
+}
@@ -0,0 +1,99 @@
+package bguspl.set;
+
+import java.util.logging.Logger;
+
+/**
+ * The game's time: every timed wait of the game threads (turn timeouts, freezes, computer players' reaction times)
+ * and every wait for another game thread goes through the clock, so the same game runs in real time or in virtual
+ * time (see Config.clock).
+ *
+ * The park, parkMillis and unpark methods have the semantics of LockSupport: an unpark before the park makes the park
+ * return right away, and a park may return early (callers re-check their condition in a loop).
+ *
+ * The game threads (the dealer, the players and the computer players) tell the clock when they start and end, so a
+ * virtual clock knows when all of them are waiting.
+ */
+public interface Clock {
+
+    /**
+     * @return - the current time, in milliseconds.
+     */
+    long millis();
+
+    /**
+     * @return - the current time, in nanoseconds (only the difference between two values is meaningful).
+     */
+    long nanos();
+
+    /**
+     * Waits for some time.
+     *
+     * @param millis - the time to wait.
+     * @throws InterruptedException - if interrupted while waiting.
+     */
+    void sleep(long millis) throws InterruptedException;
+
+    /**
+     * Waits until unparked or interrupted (or spuriously).
+     *
+     * @param blocker - the object the thread waits on (for thread dumps).
+     */
+    void park(Object blocker);
+
+    /**
+     * Waits until unparked or interrupted, or until some time passed (or spuriously).
+     *
+     * @param blocker - the object the thread waits on (for thread dumps).
+     * @param millis  - the longest time to wait.
+     */
+    void parkMillis(Object blocker, long millis);
+
+    /**
+     * Wakes a thread waiting in park or parkMillis, or makes its next park return right away.
+     *
+     * @param thread - the thread to wake (nothing happens if null).
+     */
+    void unpark(Thread thread);
+
+    /**
+     * Runs a short task once after a delay. The task must not block.
+     *
+     * @param task        - the task to run.
+     * @param delayMillis - the delay before running the task.
+     */
+    void schedule(Runnable task, long delayMillis);
+
+    /**
+     * Called (by the thread that starts it) right before a game thread is started.
+     */
+    default void threadStarting() {}
+
+    /**
+     * Called by a game thread when it starts running.
+     */
+    default void threadStarted() {}
+
+    /**
+     * Called by a game thread right before it ends.
+     */
+    default void threadEnded() {}
+
+    /**
+     * @param config - the game configuration.
+     * @param logger - the game logger.
+     * @return - the configured clock (real if the configured one is unknown).
+     */
+    static Clock create(Config config, Logger logger) {
+        switch (config.clock) {
+            case "virtual":
+                if (config.humanPlayers > 0)
+                    logger.warning("virtual time does not wait for human players, their timers will fly by.");
+                return new VirtualClock();
+            case "real":
+                return new RealClock(logger);
+            default:
+                logger.severe("unknown clock: " + config.clock + ", using real time.");
+                return new RealClock(logger);
+        }
+    }
+}
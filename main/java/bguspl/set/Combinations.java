@@ -0,0 +1,76 @@
+package bguspl.set;
+
+/**
+ * Enumerates the k-combinations of the positions from..n-1 in lexicographic order, in a buffer of k positions that
+ * the caller owns (nothing is allocated per combination). Every search for sets goes through here.
+ *
+ * Either visit all the combinations with forEach, or step through them with first and next (for a search that stops
+ * and resumes, e.g. a spliterator).
+ */
+public final class Combinations {
+
+    /**
+     * Visits the combinations, see forEach.
+     */
+    @FunctionalInterface
+    public interface Visitor {
+
+        /**
+         * @param combination - the positions chosen, in increasing order (the buffer changes after the call).
+         * @return - true to go on to the next combination, false to stop.
+         */
+        boolean visit(int[] combination);
+    }
+
+    private Combinations() {}
+
+    /**
+     * Calls a visitor with each combination, in lexicographic order, until it returns false.
+     *
+     * @param combination - the buffer of k positions.
+     * @param from        - the smallest position to choose.
+     * @param n           - the number of positions (the positions chosen are below n).
+     * @param visitor     - the visitor to call.
+     * @return - true iff all the combinations were visited (false if the visitor stopped).
+     */
+    public static boolean forEach(int[] combination, int from, int n, Visitor visitor) {
+        if (!first(combination, from, n)) return true;
+        do {
+            if (!visitor.visit(combination)) return false;
+        } while (next(combination, n));
+        return true;
+    }
+
+    /**
+     * Sets the buffer to the first combination (from, from + 1, ..., from + k - 1).
+     *
+     * @param combination - the buffer of k positions.
+     * @param from        - the smallest position to choose.
+     * @param n           - the number of positions.
+     * @return - true iff there is such a combination (k positions fit below n).
+     */
+    public static boolean first(int[] combination, int from, int n) {
+        for (int i = 0; i < combination.length; ++i)
+            combination[i] = from + i;
+        return from + combination.length <= n;
+    }
+
+    /**
+     * Moves the buffer to the next combination in lexicographic order.
+     *
+     * @param combination - the buffer of k positions, holding a combination.
+     * @param n           - the number of positions.
+     * @return - true iff there is a next combination (false if the buffer held the last one).
+     */
+    public static boolean next(int[] combination, int n) {
+        int k = combination.length;
+        if (k == 0) return false; // the only combination is the empty one
+
+        // generate next combination in lexicographic order
+        int t = k - 1;
+        while (t != 0 && combination[t] == n - k + t) --t;
+        combination[t]++;
+        for (int i = t + 1; i < k; i++) combination[i] = combination[i - 1] + 1;
+        return combination[k - 1] < n;
+    }
+}
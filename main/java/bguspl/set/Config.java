@@ -7,6 +7,7 @@ import java.nio.file.InvalidPathException;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Properties;
+import java.util.Random;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -36,6 +37,32 @@ public class Config {
      */
     public final int deckSize;
 
+    /**
+     * The seed of the deck shuffle: the same seed deals the same cards (random if not configured)
+     */
+    public final long deckSeed;
+
+    /**
+     * Whether to search large decks for sets in parallel (on the common fork/join pool)
+     */
+    public final boolean parallelFindSets;
+
+    /**
+     * The minimal number of cards in a deck for the search for sets to run in parallel
+     */
+    public final int parallelFindSetsThreshold;
+
+    /**
+     * How the dealer refills the table: "random" (the top cards of the pile) or "guaranteed" (swaps a drawn card for
+     * one that completes a set when the table would have no legal set otherwise)
+     */
+    public final String dealingStrategy;
+
+    /**
+     * Whether to reshuffle right away when there is no legal set on the table (instead of waiting for the timeout)
+     */
+    public final boolean reshuffleWhenNoSets;
+
     /**
      * The number of human players in the game.
      */
@@ -51,6 +78,40 @@ public class Config {
      */
     public final int players;
 
+    /**
+     * How computer players choose their key presses: "random" (random slots), "seeking" (the slots of a legal set) or
+     * the name of a strategy registered as a service (see bguspl.set.ex.BotStrategy)
+     */
+    public final String computerStrategy;
+
+    /**
+     * The CPU time a computer player may use for each decision (the presses of a decision over it are dropped)
+     */
+    public final long computerDecisionBudgetMillis;
+
+    /**
+     * The mean and standard deviation (normally distributed) of a seeking computer player's time to react to the table
+     */
+    public final long computerReactionMillis;
+    public final long computerReactionDeviationMillis;
+
+    /**
+     * The probability that a seeking computer player claims a wrong set (0 to 1)
+     */
+    public final double computerErrorRate;
+
+    /**
+     * How the player and computer player loops run: "platform" (a thread each), "virtual" (a virtual thread each, if
+     * the runtime supports them, otherwise pooled) or "pooled" (on a pool of daemon threads, one per loop)
+     */
+    public final String playerThreads;
+
+    /**
+     * How time passes: "real" (the wall clock) or "virtual" (simulated: whenever all the game threads wait, time jumps
+     * to the next deadline, so games of computer players run as fast as the CPU allows)
+     */
+    public final String clock;
+
     /**
      * Whether to print out hints to the console or not
      */
@@ -197,11 +258,25 @@ public class Config {
         featureSize = Integer.parseInt(properties.getProperty("FeatureSize", "3"));
         featureCount = Integer.parseInt(properties.getProperty("FeatureCount", "4"));
         deckSize = (int) Math.pow(featureSize, featureCount);
+        String seed = properties.getProperty("DeckSeed", "").trim();
+        deckSeed = seed.isEmpty() ? new Random().nextLong() : Long.parseLong(seed);
+        logger.info("deck seed: " + deckSeed);
+        parallelFindSets = Boolean.parseBoolean(properties.getProperty("ParallelFindSets", "False"));
+        parallelFindSetsThreshold = Integer.parseInt(properties.getProperty("ParallelFindSetsThreshold", "729"));
 
         // gameplay settings
+        dealingStrategy = properties.getProperty("DealingStrategy", "random").trim().toLowerCase();
+        reshuffleWhenNoSets = Boolean.parseBoolean(properties.getProperty("ReshuffleWhenNoSets", "False"));
         humanPlayers = Integer.parseInt(properties.getProperty("HumanPlayers", "2"));
         computerPlayers = Integer.parseInt(properties.getProperty("ComputerPlayers", "0"));
         players = humanPlayers + computerPlayers;
+        computerStrategy = properties.getProperty("ComputerStrategy", "random").trim().toLowerCase();
+        computerDecisionBudgetMillis = (long) (Double.parseDouble(properties.getProperty("ComputerDecisionBudgetSeconds", "0.05")) * 1000.0);
+        computerReactionMillis = (long) (Double.parseDouble(properties.getProperty("ComputerReactionSeconds", "2")) * 1000.0);
+        computerReactionDeviationMillis = (long) (Double.parseDouble(properties.getProperty("ComputerReactionDeviationSeconds", "0.5")) * 1000.0);
+        computerErrorRate = Double.parseDouble(properties.getProperty("ComputerErrorRate", "0.1"));
+        playerThreads = properties.getProperty("PlayerThreads", "platform").trim().toLowerCase();
+        clock = properties.getProperty("Clock", "real").trim().toLowerCase();
 
         hints = Boolean.parseBoolean(properties.getProperty("Hints", "False"));
         turnTimeoutMillis = (long) (Double.parseDouble(properties.getProperty("TurnTimeoutSeconds", "60")) * 1000.0);
@@ -18,6 +18,11 @@ class InputManager extends KeyAdapter {
     int[] keyToSlot = new int[MAX_KEY_CODE + 1];
     private final Logger logger;
 
+    /**
+     * The longest time (in nanoseconds) it took to dispatch a key event on the event thread.
+     */
+    private volatile long maxDispatchNanos;
+
     public InputManager(Logger logger, Config config, Player[] players) {
         this.players = players;
         this.logger = logger;
@@ -43,8 +48,20 @@ class InputManager extends KeyAdapter {
         int keyCode = e.getKeyCode();
         int player = keyMap[keyCode] - 1;
         if (player >= 0){
-            logger.severe("key " + keyCode + " was pressed by player " + (player + 1));
+            // the player only queues the key press, so this takes a bounded (and measured) time
+            long start = System.nanoTime();
             players[player].keyPressed(keyToSlot[keyCode]);
+            long dispatchNanos = System.nanoTime() - start;
+            if (dispatchNanos > maxDispatchNanos) maxDispatchNanos = dispatchNanos;
+            logger.severe("key " + keyCode + " was pressed by player " + (player + 1) + " (dispatched in "
+                    + dispatchNanos + "ns, max " + maxDispatchNanos + "ns)");
         }
     }
+
+    /**
+     * @return - the longest time (in nanoseconds) it took to dispatch a key event to a player.
+     */
+    public long maxDispatchNanos() {
+        return maxDispatchNanos;
+    }
 }
@@ -55,9 +55,10 @@ public class Main {
             if (config.humanPlayers > 0)
                 logger.severe("warning: running with human players with no user interface");
         }
-        ui = new UserInterfaceDecorator(logger, util, ui);
+        Clock clock = Clock.create(config, logger);
+        ui = new PacedUserInterface(config, new UserInterfaceDecorator(logger, util, ui), clock);
 
-        Env env = new Env(logger, config, ui, util);
+        Env env = new Env(logger, config, ui, util, clock);
 
         // create the game entities
         Table table = new Table(env);
@@ -67,6 +68,7 @@ public class Main {
 
         // start the dealer thread
         ThreadLogger dealerThread = new ThreadLogger(dealer, "dealer", logger);
+        env.clock.threadStarting();
         dealerThread.startWithLog();
 
         try {
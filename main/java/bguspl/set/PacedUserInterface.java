@@ -0,0 +1,158 @@
+package bguspl.set;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Paces the display of cards: each card placed or removed is shown config.tableDelayMillis after the previous one,
+ * on the game clock's schedule. The game (the dealer) never waits for the display.
+ *
+ * Token updates keep their order with the card updates: while card animations are pending, a token update is shown
+ * right after the last of them (so a card removal followed by the removal of its tokens is shown in that order).
+ * Otherwise token updates, like everything else, are passed on right away.
+ */
+public class PacedUserInterface implements UserInterface {
+
+    private final UserInterface ui;
+
+    private final Clock clock;
+
+    /**
+     * The time between two card animations, in nanoseconds (0 to show cards right away).
+     */
+    private final long delayNanos;
+
+    /**
+     * The updates waiting to be shown, in the order they were made (their times never decrease).
+     */
+    private final Queue<Update> updates = new ArrayDeque<>();
+
+    /**
+     * The time (Clock.nanos) of the last card animation scheduled.
+     */
+    private long lastAnimation;
+
+    /**
+     * An update of the display and the time (Clock.nanos) to show it at.
+     */
+    private static final class Update {
+        final long time;
+        final Runnable show;
+
+        Update(long time, Runnable show) {
+            this.time = time;
+            this.show = show;
+        }
+    }
+
+    /**
+     * @param config - the game configuration (see Config.tableDelayMillis).
+     * @param ui     - the user interface to pass the updates on to.
+     * @param clock  - the game clock, which times the animations.
+     */
+    public PacedUserInterface(Config config, UserInterface ui, Clock clock) {
+        this.ui = ui;
+        this.clock = clock;
+        delayNanos = TimeUnit.MILLISECONDS.toNanos(config.tableDelayMillis);
+    }
+
+    /**
+     * Schedules a card animation after the ones already scheduled.
+     */
+    private void animate(Runnable animation) {
+        long delay;
+        synchronized (this) {
+            if (delayNanos <= 0) {
+                animation.run();
+                return;
+            }
+            long now = clock.nanos();
+            lastAnimation = Math.max(now, lastAnimation) + delayNanos;
+            updates.add(new Update(lastAnimation, animation));
+            delay = lastAnimation - now;
+        }
+        // not holding the lock: a virtual clock may run the task (showDue) from within
+        clock.schedule(this::showDue, TimeUnit.NANOSECONDS.toMillis(delay - 1) + 1);
+    }
+
+    /**
+     * Passes an update on right away, or after the pending card animations (shown by the last one's task).
+     */
+    private synchronized void inOrder(Runnable update) {
+        if (updates.isEmpty()) update.run();
+        else updates.add(new Update(lastAnimation, update));
+    }
+
+    /**
+     * Shows the updates that are due, in the order they were made (run by the clock when an animation is due).
+     */
+    private synchronized void showDue() {
+        long now = clock.nanos();
+        while (!updates.isEmpty() && updates.peek().time <= now)
+            updates.poll().show.run();
+    }
+
+    @Override
+    public void placeCard(int card, int slot) {
+        animate(() -> ui.placeCard(card, slot));
+    }
+
+    @Override
+    public void removeCard(int slot) {
+        animate(() -> ui.removeCard(slot));
+    }
+
+    @Override
+    public void placeToken(int player, int slot) {
+        inOrder(() -> ui.placeToken(player, slot));
+    }
+
+    @Override
+    public void removeTokens() {
+        inOrder(ui::removeTokens);
+    }
+
+    @Override
+    public void removeTokens(int slot) {
+        inOrder(() -> ui.removeTokens(slot));
+    }
+
+    @Override
+    public void removeToken(int player, int slot) {
+        inOrder(() -> ui.removeToken(player, slot));
+    }
+
+    @Override
+    public void setCountdown(long millies, boolean warn) {
+        ui.setCountdown(millies, warn);
+    }
+
+    @Override
+    public void setElapsed(long millies) {
+        ui.setElapsed(millies);
+    }
+
+    @Override
+    public void setFreeze(int player, long millies) {
+        ui.setFreeze(player, millies);
+    }
+
+    @Override
+    public void setScore(int player, int score) {
+        ui.setScore(player, score);
+    }
+
+    @Override
+    public void announceWinner(int[] players) {
+        ui.announceWinner(players);
+    }
+
+    @Override
+    public void dispose() {
+        synchronized (this) {
+            updates.clear(); // the animations still scheduled find nothing to show
+        }
+        ui.dispose();
+    }
+}
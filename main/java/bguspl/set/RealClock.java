@@ -0,0 +1,77 @@
+package bguspl.set;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+
+/**
+ * The wall clock: waits are real waits, and scheduled tasks run on the clock's timer wheel (its thread starts with the
+ * first task scheduled).
+ */
+public class RealClock implements Clock {
+
+    /**
+     * The logger of the scheduled tasks that throw.
+     */
+    private final Logger logger;
+
+    private volatile TimerWheel wheel;
+
+    /**
+     * A clock whose failing tasks are logged to the global logger.
+     */
+    public RealClock() {
+        this(Logger.getGlobal());
+    }
+
+    /**
+     * @param logger - the logger of the scheduled tasks that throw.
+     */
+    public RealClock(Logger logger) {
+        this.logger = logger;
+    }
+
+    @Override
+    public long millis() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public long nanos() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public void sleep(long millis) throws InterruptedException {
+        Thread.sleep(millis);
+    }
+
+    @Override
+    public void park(Object blocker) {
+        LockSupport.park(blocker);
+    }
+
+    @Override
+    public void parkMillis(Object blocker, long millis) {
+        LockSupport.parkNanos(blocker, TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    @Override
+    public void unpark(Thread thread) {
+        LockSupport.unpark(thread);
+    }
+
+    @Override
+    public void schedule(Runnable task, long delayMillis) {
+        wheel().schedule(task, delayMillis);
+    }
+
+    private TimerWheel wheel() {
+        TimerWheel wheel = this.wheel;
+        if (wheel != null) return wheel;
+        synchronized (this) {
+            if (this.wheel == null) this.wheel = new TimerWheel("timer-wheel", this, logger);
+            return this.wheel;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package bguspl.set;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * A hashed timer wheel: runs short tasks after a delay, with a single thread for all the tasks.
+ * Each tick the thread runs the tasks due in the current bucket; a task that is further away than a full turn of the
+ * wheel waits for the needed number of rounds. Scheduling and cancelling take O(1), and tasks run on the wheel's
+ * thread, so they must not block. A task that throws is logged and the wheel goes on with the other tasks.
+ *
+ * The wheel keeps time and waits with a clock, and its thread is a game thread of that clock (so a virtual clock
+ * waits for the tasks that are due). While no task is pending the thread does not tick, it waits to be woken by the
+ * next schedule.
+ *
+ * @inv 0 <= current < WHEEL_SIZE
+ */
+class TimerWheel {
+
+    /**
+     * The resolution of the wheel: a task runs at most this late.
+     */
+    static final long TICK_MILLIS = 10;
+
+    /**
+     * The number of buckets (a power of 2).
+     */
+    static final int WHEEL_SIZE = 512;
+
+    /**
+     * A scheduled task (can be cancelled until it runs).
+     */
+    static final class Timeout {
+        private final Runnable task;
+        private final long deadline;
+        private long rounds;
+        private volatile boolean cancelled;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        void cancel() {
+            cancelled = true;
+        }
+    }
+
+    private final List<List<Timeout>> buckets = new ArrayList<>(WHEEL_SIZE);
+
+    /**
+     * Tasks scheduled by other threads, moved into their buckets by the wheel's thread on its next tick.
+     */
+    private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+
+    private final Clock clock;
+    private final Logger logger;
+    private final Thread worker;
+    private final long start;
+
+    /**
+     * The number of ticks the wheel's thread has processed and the number of tasks in the buckets (written by the
+     * wheel's thread only).
+     */
+    private long ticks;
+    private int pending;
+
+    /**
+     * @param name   - the name of the wheel's thread.
+     * @param clock  - the clock that times the tasks.
+     * @param logger - the logger of the tasks that throw.
+     */
+    TimerWheel(String name, Clock clock, Logger logger) {
+        this.clock = clock;
+        this.logger = logger;
+        start = clock.nanos();
+        for (int i = 0; i < WHEEL_SIZE; ++i)
+            buckets.add(new ArrayList<>());
+        worker = new Thread(this::run, name);
+        worker.setDaemon(true);
+        clock.threadStarting();
+        worker.start();
+    }
+
+    /**
+     * Schedules a task to run once after a delay.
+     *
+     * @param task        - the task to run (on the wheel's thread).
+     * @param delayMillis - the delay before running the task.
+     * @return - a handle that can cancel the task.
+     */
+    Timeout schedule(Runnable task, long delayMillis) {
+        Timeout timeout = new Timeout(task, clock.nanos() + TimeUnit.MILLISECONDS.toNanos(delayMillis));
+        scheduled.add(timeout);
+        clock.unpark(worker); // in case it waits for a task
+        return timeout;
+    }
+
+    private void run() {
+        clock.threadStarted();
+        long tickNanos = TimeUnit.MILLISECONDS.toNanos(TICK_MILLIS);
+        while (true) {
+            if (pending == 0 && scheduled.isEmpty()) {
+                clock.park(this);
+                ticks = Math.max(ticks, (clock.nanos() - start) / tickNanos); // the buckets are empty, skip to now
+                continue;
+            }
+            long sleep = start + (ticks + 1) * tickNanos - clock.nanos();
+            if (sleep > 0) {
+                clock.parkMillis(this, TimeUnit.NANOSECONDS.toMillis(sleep - 1) + 1); // rounded up
+                continue;
+            }
+            ++ticks;
+            addScheduled(tickNanos);
+            expire(buckets.get((int) (ticks & (WHEEL_SIZE - 1))));
+        }
+    }
+
+    private void addScheduled(long tickNanos) {
+        for (Timeout timeout = scheduled.poll(); timeout != null; timeout = scheduled.poll()) {
+            if (timeout.cancelled) continue;
+            long due = Math.max((timeout.deadline - start + tickNanos - 1) / tickNanos, ticks);
+            timeout.rounds = (due - ticks) / WHEEL_SIZE;
+            buckets.get((int) (due & (WHEEL_SIZE - 1))).add(timeout);
+            ++pending;
+        }
+    }
+
+    private void expire(List<Timeout> bucket) {
+        for (Iterator<Timeout> it = bucket.iterator(); it.hasNext(); ) {
+            Timeout timeout = it.next();
+            if (timeout.cancelled) {
+                it.remove();
+                --pending;
+            } else if (timeout.rounds > 0) {
+                --timeout.rounds;
+            } else {
+                it.remove();
+                --pending;
+                try {
+                    timeout.task.run();
+                } catch (RuntimeException e) {
+                    logger.severe("timer task failed: " + e);
+                }
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package bguspl.set;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * An interface for general utilities provided for convenience.
@@ -31,6 +32,15 @@ public interface Util {
      */
     boolean testSet(int[] cards);
 
+    /**
+     * Finds the card that completes the given cards into a legal set.
+     * Note: the completing card is unique only when featureSize >= 3.
+     *
+     * @param cards - an array of config.featureSize - 1 card ids.
+     * @return - the id of the card completing the legal set, or -1 if there is none (or it is not unique).
+     */
+    int completeSet(int[] cards);
+
     /**
      * Finds and returns up to count sets in the given collection of cards.
      *
@@ -40,6 +50,25 @@ public interface Util {
      */
     List<int[]> findSets(List<Integer> deck, int count);
 
+    /**
+     * Finds and returns up to count sets in the given store of cards (see findSets above).
+     *
+     * @param deck  - a store of cards.
+     * @param count - the maximum number of sets to find.
+     * @return - a list of up to count integer arrays, each one contains the card ids of a legal set.
+     */
+    List<int[]> findSets(CardStore deck, int count);
+
+    /**
+     * Lazily finds the sets in the given store of cards (as it is at the time of the call).
+     * Sets are only searched for as they are consumed, so short-circuiting operations (e.g. limit, findFirst,
+     * anyMatch) stop the search early. The stream can be made parallel.
+     *
+     * @param deck - a store of cards.
+     * @return - a stream of integer arrays, each one contains the card ids of a legal set.
+     */
+    Stream<int[]> streamSets(CardStore deck);
+
     /**
      * Spin a random number of times (for debugging/testing).
      */
@@ -1,10 +1,18 @@
 package bguspl.set;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * The implementation of the UserInterface interface.
@@ -13,17 +21,29 @@ public class UtilImpl implements Util {
 
     private final Config config;
 
+    /**
+     * The features of every card in the deck, computed once (the i-th feature of card c is at c * featureCount + i).
+     */
+    private final int[] featureTable;
+
     public UtilImpl(Config config) {
         this.config = config;
+        featureTable = new int[config.deckSize * config.featureCount];
+        for (int card = 0; card < config.deckSize; ++card)
+            cardToFeatures(card, featureTable, card * config.featureCount);
     }
 
-    private void cardToFeatures(int card, int[] features) {
+    private void cardToFeatures(int card, int[] features, int offset) {
         for (int i = config.featureCount - 1; i >= 0; --i) {
-            features[i] = card % config.featureSize;
+            features[offset + i] = card % config.featureSize;
             card /= config.featureSize;
         }
     }
 
+    private void cardToFeatures(int card, int[] features) {
+        System.arraycopy(featureTable, card * config.featureCount, features, 0, config.featureCount);
+    }
+
     @Override
     public int[] cardToFeatures(int card) {
         int[] features = new int[config.featureCount];
@@ -40,6 +60,29 @@ public class UtilImpl implements Util {
 
     @Override
     public boolean testSet(int[] cards) {
+        if (config.featureSize > Long.SIZE) return testSetReference(cards);
+        if (cards.length < 2) return config.featureCount == 0; // a single card is both sameSame and butDifferent
+
+        for (int i = 0; i < config.featureCount; ++i) {
+            // collect the values of this feature as a bitmask, no allocation needed
+            long values = 0;
+            for (int card : cards)
+                values |= 1L << featureTable[card * config.featureCount + i];
+
+            // sameSame means a single value, butDifferent means a different value per card
+            int distinct = Long.bitCount(values);
+            if (distinct != 1 && distinct != cards.length) return false;
+        }
+        return true;
+    }
+
+    /**
+     * The straightforward (allocating) version of testSet, kept as a reference for equivalence tests.
+     *
+     * @param cards - the array of cards.
+     * @return - true iff the array forms a legal set.
+     */
+    boolean testSetReference(int[] cards) {
         int[][] features = cardsToFeatures(Arrays.copyOf(cards, cards.length));
         for (int i = 0; i < config.featureCount; ++i) {
             boolean sameSame = true, butDifferent = true;
@@ -66,27 +109,317 @@ public class UtilImpl implements Util {
 
     @Override
     public List<int[]> findSets(List<Integer> deck, int count) {
-        LinkedList<int[]> sets = new LinkedList<>();
-        int n = deck.size();
         int r = config.featureSize;
-        int[] combination = new int[r];
+        if (r < 3 || r > Long.SIZE) return findSetsReference(deck, count); // the last card is not unique for r < 3
 
-        for (int i = 0; i < r; ++i)
-            combination[i] = i;
+        int[] cards = new int[deck.size()];
+        for (int i = 0; i < cards.length; ++i)
+            cards[i] = deck.get(i);
+        return findSets(cards, count);
+    }
+
+    @Override
+    public List<int[]> findSets(CardStore deck, int count) {
+        int r = config.featureSize;
+        if (r < 3 || r > Long.SIZE) {
+            List<Integer> cards = new ArrayList<>(deck.size());
+            for (int i = 0; i < deck.size(); ++i)
+                cards.add(deck.get(i));
+            return findSetsReference(cards, count);
+        }
+        return findSets(deck.toArray(), count);
+    }
+
+    @Override
+    public Stream<int[]> streamSets(CardStore deck) {
+        int r = config.featureSize;
+        if (r < 3 || r > Long.SIZE) {
+            List<Integer> cards = new ArrayList<>(deck.size());
+            for (int i = 0; i < deck.size(); ++i)
+                cards.add(deck.get(i));
+            return findSetsReference(cards, Integer.MAX_VALUE).stream();
+        }
+
+        int[] cards = deck.toArray();
+        long[] inDeck = new long[(config.deckSize + Long.SIZE - 1) / Long.SIZE];
+        for (int card : cards)
+            inDeck[card / Long.SIZE] |= 1L << card;
+        return StreamSupport.stream(new SetSpliterator(cards, inDeck, 0, cards.length), false);
+    }
 
-        while (combination[r - 1] < deck.size()) {
+    private List<int[]> findSets(int[] cards, int count) {
+        int n = cards.length;
+        int r = config.featureSize;
+        if (n < r) return new LinkedList<>();
+
+        // mark the cards of the deck in a card-indexed bitmap
+        long[] inDeck = new long[(config.deckSize + Long.SIZE - 1) / Long.SIZE];
+        for (int card : cards)
+            inDeck[card / Long.SIZE] |= 1L << card;
+
+        if (config.parallelFindSets && n >= config.parallelFindSetsThreshold)
+            return new ParallelSearch(cards, inDeck, count).invoke();
+
+        LinkedList<int[]> sets = new LinkedList<>();
+        int[] chosen = new int[r - 1];
+        int[] combination = new int[r - 2];
+        for (int first = 0; first < n; ++first)
+            if (findSetsFrom(cards, inDeck, first, chosen, combination, sets, count)) break;
+        return sets;
+    }
+
+    /**
+     * Finds the sets whose first card (in deck order) is cards[first], in lexicographic order.
+     * The search chooses r - 1 cards, the last card of the set is uniquely determined by them.
+     *
+     * @param cards       - the deck.
+     * @param inDeck      - a card-indexed bitmap of the deck.
+     * @param first       - the index of the first card.
+     * @param chosen      - a buffer of r - 1 cards.
+     * @param combination - a buffer of r - 2 indices.
+     * @param sets        - the list to add the sets to.
+     * @param count       - the maximum number of sets in the list.
+     * @return - true iff the list reached count sets.
+     */
+    private boolean findSetsFrom(int[] cards, long[] inDeck, int first, int[] chosen, int[] combination,
+                                 List<int[]> sets, int count) {
+        int k = combination.length;
+        chosen[0] = cards[first];
+        return !Combinations.forEach(combination, first + 1, cards.length, positions -> {
+            int max = chosen[0];
+            for (int i = 0; i < k; ++i) {
+                chosen[i + 1] = cards[positions[i]];
+                max = Math.max(max, chosen[i + 1]);
+            }
+
+            // every set is reported once: when the completing card is the one with the largest id
+            int last = completeSet(chosen);
+            if (last > max && (inDeck[last / Long.SIZE] & (1L << last)) != 0) {
+                int[] set = Arrays.copyOf(chosen, k + 2);
+                set[k + 1] = last;
+                Arrays.sort(set);
+                sets.add(set);
+                return sets.size() < count;
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Lazily finds the sets of a deck, one first card (see findSetsFrom) after the other.
+     * Splitting hands over the first half of the remaining first cards (a prefix, as required for ORDERED).
+     */
+    private class SetSpliterator implements Spliterator<int[]> {
+
+        private final int[] cards;
+        private final long[] inDeck;
+        private final int[] chosen;
+        private final int[] combination;
+
+        /**
+         * The first card currently searched and the end of the range of first cards (exclusive).
+         */
+        private int first;
+        private int end;
+
+        /**
+         * False once all the combinations of the first card were searched.
+         */
+        private boolean hasCombination;
+
+        private SetSpliterator(int[] cards, long[] inDeck, int first, int end) {
+            this.cards = cards;
+            this.inDeck = inDeck;
+            this.first = first;
+            this.end = end;
+            chosen = new int[config.featureSize - 1];
+            combination = new int[config.featureSize - 2];
+            startFirst();
+        }
+
+        private void startFirst() {
+            hasCombination = Combinations.first(combination, first + 1, cards.length);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super int[]> action) {
+            int n = cards.length;
+            int k = combination.length;
+            while (first < end) {
+                if (!hasCombination) { // done with this first card
+                    ++first;
+                    startFirst();
+                    continue;
+                }
+
+                int max = chosen[0] = cards[first];
+                for (int i = 0; i < k; ++i) {
+                    chosen[i + 1] = cards[combination[i]];
+                    max = Math.max(max, chosen[i + 1]);
+                }
+                int last = completeSet(chosen);
+                hasCombination = Combinations.next(combination, n);
+
+                if (last > max && (inDeck[last / Long.SIZE] & (1L << last)) != 0) {
+                    int[] set = Arrays.copyOf(chosen, k + 2);
+                    set[k + 1] = last;
+                    Arrays.sort(set);
+                    action.accept(set);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Spliterator<int[]> trySplit() {
+            int middle = (first + 1 + end) >>> 1;
+            if (middle <= first + 1 || middle >= end) return null;
+
+            // the prefix continues the search from where this one is
+            SetSpliterator prefix = new SetSpliterator(cards, inDeck, first, middle);
+            System.arraycopy(combination, 0, prefix.combination, 0, combination.length);
+            prefix.hasCombination = hasCombination;
+            first = middle;
+            startFirst();
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return Math.max(end - first, 0);
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | DISTINCT | NONNULL | IMMUTABLE;
+        }
+    }
+
+    /**
+     * A parallel search for sets on the common fork/join pool: each first card (see findSetsFrom) is a separate
+     * task. The results are merged in the order of the first cards, so they are the same as the sequential search.
+     * Once the tasks of a prefix of the first cards found count sets, the tasks after that prefix are skipped.
+     */
+    private class ParallelSearch {
+
+        private final int[] cards;
+        private final long[] inDeck;
+        private final int count;
+
+        /**
+         * The sets found from each first card (null until its task is done).
+         */
+        private final List<List<int[]>> results;
+
+        /**
+         * The length of the prefix of first cards that are done and the number of sets they found.
+         */
+        private int done;
+        private int found;
+
+        /**
+         * The last first card that needs to be searched.
+         */
+        private volatile int cutoff;
+
+        private ParallelSearch(int[] cards, long[] inDeck, int count) {
+            this.cards = cards;
+            this.inDeck = inDeck;
+            this.count = count;
+            results = new ArrayList<>(Collections.nCopies(cards.length, null));
+            cutoff = cards.length - 1;
+        }
+
+        private List<int[]> invoke() {
+            ForkJoinPool.commonPool().invoke(new Task(0, cards.length));
+
+            LinkedList<int[]> sets = new LinkedList<>();
+            for (int first = 0; first <= cutoff; ++first)
+                sets.addAll(results.get(first));
+            while (sets.size() > Math.max(count, 1))
+                sets.removeLast();
+            return sets;
+        }
+
+        private void search(int first) {
+            List<int[]> sets = new ArrayList<>();
+            if (first <= cutoff)
+                findSetsFrom(cards, inDeck, first, new int[config.featureSize - 1], new int[config.featureSize - 2], sets, count);
+            done(first, sets);
+        }
+
+        private synchronized void done(int first, List<int[]> sets) {
+            results.set(first, sets);
+            while (done < cutoff + 1 && results.get(done) != null) {
+                found += results.get(done).size();
+                if (found >= count) cutoff = done;
+                ++done;
+            }
+        }
+
+        private class Task extends RecursiveAction {
+
+            private static final long serialVersionUID = 1L;
+
+            private final int from;
+            private final int to;
+
+            private Task(int from, int to) {
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            protected void compute() {
+                if (to - from == 1) {
+                    search(from);
+                } else {
+                    int middle = (from + to) >>> 1;
+                    invokeAll(new Task(from, middle), new Task(middle, to));
+                }
+            }
+        }
+    }
+
+    @Override
+    public int completeSet(int[] cards) {
+        if (config.featureSize < 3 || config.featureSize > Long.SIZE || cards.length != config.featureSize - 1)
+            return -1;
+
+        int card = 0;
+        for (int i = 0; i < config.featureCount; ++i) {
+            long values = 0;
+            for (int c : cards)
+                values |= 1L << featureTable[c * config.featureCount + i];
+
+            int feature;
+            int distinct = Long.bitCount(values);
+            if (distinct == 1) feature = Long.numberOfTrailingZeros(values); // sameSame: repeat the value
+            else if (distinct == cards.length) feature = Long.numberOfTrailingZeros(~values); // the missing value
+            else return -1;
+            card = card * config.featureSize + feature;
+        }
+        return card;
+    }
+
+    /**
+     * The exhaustive version of findSets (tests every r-combination of the deck), kept as a reference for tests.
+     *
+     * @param deck  - a collection of cards (may not include null objects).
+     * @param count - the maximum number of sets to find.
+     * @return - a list of up to count integer arrays, each one contains the card ids of a legal set.
+     */
+    List<int[]> findSetsReference(List<Integer> deck, int count) {
+        LinkedList<int[]> sets = new LinkedList<>();
+        Combinations.forEach(new int[config.featureSize], 0, deck.size(), combination -> {
             int[] cards = Arrays.stream(combination).map(deck::get).sorted().toArray();
             if (testSet(cards)) {
                 sets.add(cards);
-                if (sets.size() >= count) return sets;
+                return sets.size() < count;
             }
-
-            // generate next combination in lexicographic order
-            int t = r - 1;
-            while (t != 0 && combination[t] == n - r + t) --t;
-            combination[t]++;
-            for (int i = t + 1; i < r; i++) combination[i] = combination[i - 1] + 1;
-        }
+            return true;
+        });
         return sets;
     }
 
@@ -0,0 +1,261 @@
+package bguspl.set;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Virtual (simulated) time, as a discrete-event clock: time stands still while any game thread runs, and when all of
+ * them wait on the clock it jumps to the next deadline (of a timed wait or a scheduled task). Games of computer players
+ * then run as fast as the CPU allows, while every timeout, freeze and reaction time still takes its full (virtual)
+ * time.
+ *
+ * Note: a game thread that blocks outside the clock (on a lock, or joining another thread) counts as running, so time
+ * waits for it. Threads that are not game threads (e.g. the UI) may use the clock but never hold time back.
+ *
+ * @inv running >= 0
+ */
+public class VirtualClock implements Clock {
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * The timed waits and scheduled tasks, earliest first (cancelled ones are dropped when they come up).
+     */
+    private final PriorityQueue<Event> events = new PriorityQueue<>();
+
+    /**
+     * The waiting state of each thread that used the clock (a game thread's is removed when it ends).
+     */
+    private final Map<Thread, Waiter> waiters = new HashMap<>();
+
+    /**
+     * The current time, in nanoseconds (written with the lock held).
+     */
+    private volatile long now;
+
+    /**
+     * The number of game threads started and not waiting on the clock.
+     */
+    private int running;
+
+    /**
+     * The number of events added so far (events with the same deadline come up in the order they were added).
+     */
+    private long sequence;
+
+    /**
+     * True while due events are run (so a task that schedules another task does not run it from within).
+     */
+    private boolean advancing;
+
+    /**
+     * A thread's waiting state (guarded by lock).
+     */
+    private final class Waiter {
+        final Condition woken = lock.newCondition();
+        boolean gameThread;
+        boolean permit;
+        boolean waiting;
+        boolean unparkable;
+        Event timeout;
+    }
+
+    /**
+     * The end of a timed wait (waiter is set) or a scheduled task (task is set).
+     */
+    private static final class Event implements Comparable<Event> {
+        final long deadline;
+        final long sequence;
+        final Waiter waiter;
+        final Runnable task;
+        boolean cancelled;
+
+        Event(long deadline, long sequence, Waiter waiter, Runnable task) {
+            this.deadline = deadline;
+            this.sequence = sequence;
+            this.waiter = waiter;
+            this.task = task;
+        }
+
+        @Override
+        public int compareTo(Event other) {
+            int byDeadline = Long.compare(deadline, other.deadline);
+            return byDeadline != 0 ? byDeadline : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    @Override
+    public long millis() {
+        return TimeUnit.NANOSECONDS.toMillis(now);
+    }
+
+    @Override
+    public long nanos() {
+        return now;
+    }
+
+    @Override
+    public void sleep(long millis) throws InterruptedException {
+        lock.lock();
+        try {
+            long deadline = deadline(millis);
+            while (now < deadline) {
+                if (Thread.interrupted()) throw new InterruptedException();
+                await(waiter(), deadline, false);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void park(Object blocker) {
+        park(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void parkMillis(Object blocker, long millis) {
+        if (millis > 0) park(deadline(millis));
+    }
+
+    private void park(long deadline) {
+        lock.lock();
+        try {
+            Waiter waiter = waiter();
+            if (waiter.permit) waiter.permit = false;
+            else if (!Thread.currentThread().isInterrupted()) await(waiter, deadline, true);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void unpark(Thread thread) {
+        if (thread == null) return;
+        lock.lock();
+        try {
+            Waiter waiter = waiters.computeIfAbsent(thread, t -> new Waiter());
+            if (waiter.waiting && waiter.unparkable) wake(waiter);
+            else waiter.permit = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void schedule(Runnable task, long delayMillis) {
+        lock.lock();
+        try {
+            events.add(new Event(deadline(delayMillis), sequence++, null, task));
+            advance();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void threadStarting() {
+        lock.lock();
+        try {
+            ++running;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void threadStarted() {
+        lock.lock();
+        try {
+            waiter().gameThread = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void threadEnded() {
+        lock.lock();
+        try {
+            waiters.remove(Thread.currentThread());
+            --running;
+            advance();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return - the waiting state of the current thread (lock held).
+     */
+    private Waiter waiter() {
+        return waiters.computeIfAbsent(Thread.currentThread(), t -> new Waiter());
+    }
+
+    /**
+     * @return - the time in a given number of milliseconds (Long.MAX_VALUE if it is too far to represent).
+     */
+    private long deadline(long millis) {
+        long nanos = TimeUnit.MILLISECONDS.toNanos(Math.max(millis, 0));
+        return nanos >= Long.MAX_VALUE - now ? Long.MAX_VALUE : now + nanos;
+    }
+
+    /**
+     * Waits until woken by an unpark (if unparkable), an interrupt or the deadline (lock held).
+     */
+    private void await(Waiter waiter, long deadline, boolean unparkable) {
+        waiter.waiting = true;
+        waiter.unparkable = unparkable;
+        if (deadline != Long.MAX_VALUE) {
+            waiter.timeout = new Event(deadline, sequence++, waiter, null);
+            events.add(waiter.timeout);
+        }
+        if (waiter.gameThread) {
+            --running;
+            advance();
+        }
+        try {
+            while (waiter.waiting)
+                waiter.woken.await();
+        } catch (InterruptedException e) {
+            if (waiter.waiting) wake(waiter);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Ends a thread's wait (lock held).
+     */
+    private void wake(Waiter waiter) {
+        waiter.waiting = false;
+        if (waiter.timeout != null) {
+            waiter.timeout.cancelled = true;
+            waiter.timeout = null;
+        }
+        if (waiter.gameThread) ++running;
+        waiter.woken.signal();
+    }
+
+    /**
+     * While no game thread runs, moves time to the next event and handles it (lock held).
+     */
+    private void advance() {
+        if (advancing) return;
+        advancing = true;
+        try {
+            while (running == 0 && !events.isEmpty()) {
+                Event event = events.poll();
+                if (event.cancelled) continue;
+                now = Math.max(now, event.deadline);
+                if (event.task != null) event.task.run();
+                else wake(event.waiter);
+            }
+        } finally {
+            advancing = false;
+        }
+    }
+}
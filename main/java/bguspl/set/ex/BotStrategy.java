@@ -0,0 +1,76 @@
+package bguspl.set.ex;
+
+import bguspl.set.Env;
+
+import java.util.Random;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * How a computer player chooses its key presses. The strategy is chosen by name (see Config.computerStrategy) among
+ * the built-in ones ("random" and "seeking") and the ones registered as services of this interface (found with
+ * java.util.ServiceLoader, so a strategy can be added on the class path without changing the game).
+ *
+ * Each computer player gets its own instance, called by the player's AI thread only. Each decision gets a CPU time
+ * budget (see Config.computerDecisionBudgetMillis): the presses of a decision that goes over it are dropped, and the
+ * player reports its decisions and the ones over budget when the game ends.
+ */
+public interface BotStrategy {
+
+    /**
+     * @return - the name to choose the strategy by.
+     */
+    String name();
+
+    /**
+     * Called once, before the first decision.
+     *
+     * @param env    - the game environment objects.
+     * @param player - the id of the player the strategy plays for.
+     */
+    default void init(Env env, int player) {}
+
+    /**
+     * How long the player takes before each decision (e.g. to simulate a human's reaction time). The AI thread waits
+     * it out on the game clock before calling decide, so it does not count against the decision budget.
+     *
+     * @param random - the AI thread's random number generator.
+     * @return - the time to wait before the next decision, in milliseconds (none by default).
+     */
+    default long reactionMillis(Random random) {
+        return 0;
+    }
+
+    /**
+     * Chooses the next key presses. The decision should only compute (waiting belongs in reactionMillis), and its
+     * time is limited: a long computation should check the budget (exceeded, remainingNanos) and stop early, since
+     * the presses of a decision that goes over it are dropped.
+     *
+     * @param table  - a read-only view of the table.
+     * @param tokens - the slots the player has tokens on (pressing one of them removes the token).
+     * @param random - the AI thread's random number generator.
+     * @param budget - the CPU time budget of the decision.
+     * @return - the slots to press, in order (none to be asked again).
+     * @throws InterruptedException - if interrupted while deciding (e.g. when the game terminates).
+     */
+    int[] decide(TableView table, int[] tokens, Random random, DecisionBudget budget) throws InterruptedException;
+
+    /**
+     * @param env - the game environment objects.
+     * @return - the configured strategy: a built-in one or a service of BotStrategy (random if there is none).
+     */
+    static BotStrategy load(Env env) {
+        String name = env.config.computerStrategy;
+        BotStrategy[] builtIn = {new RandomStrategy(), new SetSeekingStrategy()};
+        for (BotStrategy strategy : builtIn)
+            if (strategy.name().equalsIgnoreCase(name)) return strategy;
+        try {
+            for (BotStrategy strategy : ServiceLoader.load(BotStrategy.class))
+                if (strategy.name().equalsIgnoreCase(name)) return strategy;
+        } catch (ServiceConfigurationError e) {
+            env.logger.severe("failed to load computer strategies: " + e.getMessage());
+        }
+        env.logger.severe("unknown computer strategy: " + name + ", using random.");
+        return builtIn[0];
+    }
+}
@@ -0,0 +1,47 @@
+package bguspl.set.ex;
+
+import java.util.Comparator;
+
+/**
+ * A player's claim that the cards under its tokens form a legal set, waiting for the dealer to check it.
+ */
+final class Claim {
+
+    /**
+     * Orders claims by the time their last key was pressed (earliest first).
+     */
+    static final Comparator<Claim> BY_PRESS_TIME = Comparator.comparingLong(claim -> claim.pressTime);
+
+    /**
+     * The id of the claiming player.
+     */
+    final int player;
+
+    /**
+     * The claimed slots.
+     */
+    final int[] slots;
+
+    /**
+     * The claimed card ids (the cards in the slots, in the same order).
+     */
+    final int[] cards;
+
+    /**
+     * The time (Clock.nanos) of the key press that completed the claim.
+     */
+    final long pressTime;
+
+    /**
+     * The version of the table snapshot the cards were read from (see Table.snapshot).
+     */
+    final long tableVersion;
+
+    Claim(int player, int[] slots, int[] cards, long pressTime, long tableVersion) {
+        this.player = player;
+        this.slots = slots;
+        this.cards = cards;
+        this.pressTime = pressTime;
+        this.tableVersion = tableVersion;
+    }
+}
@@ -3,16 +3,20 @@ package bguspl.set.ex;
 import bguspl.set.Env;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 /**
  * This class manages the dealer's threads and data
  */
 public class Dealer implements Runnable {
 
+    /**
+     * The number of milliseconds between countdown display updates while the warning is shown.
+     */
+    private static final long WARNING_TICK_MILLIS = 10;
+
     /**
      * The game environment object.
      */
@@ -25,15 +29,52 @@ public class Dealer implements Runnable {
     private final Player[] players;
 
     /**
-     * The list of card ids that are left in the dealer's deck.
+     * The dealer's draw pile, shuffled once with Config.deckSeed (also tracks which cards are on the table).
+     */
+    private final DrawPile pile;
+
+    /**
+     * Draws the cards that refill the table (see Config.dealingStrategy).
+     */
+    private final DealingStrategy dealing;
+
+    /**
+     * Counts the legal sets left among the cards still in the game, in the pile or on the table (kept in sync with
+     * the cards discarded from pile).
+     */
+    private final SetCounter deckSets;
+
+    /**
+     * Buffers reused by removeCardsFromTable: the claims of the batch, the sets collected from it, the cards taken by
+     * the collected sets and, per player, whether it made a claim and the verdict (1 point, -1 penalty, 0 stale).
+     */
+    private final List<Claim> claims = new ArrayList<>();
+    private final List<int[]> collected = new ArrayList<>();
+    private final boolean[] taken;
+    private final boolean[] claimants;
+    private final int[] verdicts;
+
+    /**
+     * The number of claims of each player that were rejected as stale or lost to an earlier conflicting claim.
+     */
+    private final AtomicIntegerArray staleClaims;
+    private final AtomicIntegerArray conflictingClaims;
+
+    /**
+     * Runs the player and computer player loops (see Config.playerThreads).
      */
-    private final List<Integer> deck;
+    final PlayerThreads threads;
 
     /**
      * True iff game should be terminated.
      */
     private volatile boolean terminate;
 
+    /**
+     * The dealer thread (woken by the players when they make a claim).
+     */
+    private volatile Thread dealerThread;
+
     /**
      * The time when the dealer needs to reshuffle the deck due to turn timeout.
      */
@@ -43,7 +84,17 @@ public class Dealer implements Runnable {
         this.env = env;
         this.table = table;
         this.players = players;
-        deck = IntStream.range(0, env.config.deckSize).boxed().collect(Collectors.toList());
+        pile = new DrawPile(env.config.deckSize, env.config.deckSeed);
+        dealing = DealingStrategy.create(env, pile, table);
+        taken = new boolean[env.config.deckSize];
+        claimants = new boolean[players.length];
+        verdicts = new int[players.length];
+        staleClaims = new AtomicIntegerArray(players.length);
+        conflictingClaims = new AtomicIntegerArray(players.length);
+        threads = PlayerThreads.create(env, players.length + env.config.computerPlayers);
+        deckSets = new SetCounter(env);
+        for (int card = 0; card < env.config.deckSize; ++card)
+            deckSets.add(card);
     }
 
     /**
@@ -52,9 +103,11 @@ public class Dealer implements Runnable {
     @Override
     public void run() {
         //env.logger.info("thread " + Thread.currentThread().getName() + " starting.");
+        dealerThread = Thread.currentThread();
+        env.clock.threadStarted();
         for (int i = 0; i<players.length; i++){
-            Thread threadPlayer = new Thread(players[i],"player number " + players[i].id);
-            threadPlayer.start();
+            env.clock.threadStarting();
+            threads.start(players[i], "player number " + players[i].id);
         }
         while (!shouldFinish()) {
             placeCardsOnTable();
@@ -62,22 +115,35 @@ public class Dealer implements Runnable {
             updateTimerDisplay(false);
             removeAllCardsFromTable();
         }
+        if (!terminate) terminate(); // the players would otherwise keep looking for sets
         announceWinners();
         env.logger.info("thread " + Thread.currentThread().getName() + " terminated.");
+        env.clock.threadEnded();
     }
 
     /**
      * The inner loop of the dealer thread that runs as long as the countdown did not time out.
      */
     private void timerLoop() {
-        reshuffleTime = System.currentTimeMillis() + env.config.turnTimeoutMillis + 1000;
-        while (!terminate && System.currentTimeMillis() < reshuffleTime) {
+        reshuffleTime = env.clock.millis() + env.config.turnTimeoutMillis + 1000;
+        while (!terminate && env.clock.millis() < reshuffleTime) {
+            if (noSetsToFind()) {
+                env.logger.info("thread " + Thread.currentThread().getName() + " found no legal set, reshuffling.");
+                break;
+            }
             sleepUntilWokenOrTimeout();
             updateTimerDisplay(false);
             removeCardsFromTable();
             placeCardsOnTable();
         }
-        reshuffleTime = System.currentTimeMillis();
+        reshuffleTime = env.clock.millis();
+    }
+
+    /**
+     * @return - true iff reshuffling when the table has no legal set is on and the table has none.
+     */
+    private boolean noSetsToFind() {
+        return env.config.reshuffleWhenNoSets && !table.hasSets();
     }
 
     /**
@@ -88,6 +154,7 @@ public class Dealer implements Runnable {
         for (int i=0; i<players.length; i++){
             players[i].terminate();
         }
+        threads.shutdown();
         terminate = true;
     }
 
@@ -97,136 +164,115 @@ public class Dealer implements Runnable {
      * @return true iff the game should be finished.
      */
     private boolean shouldFinish() {
-        return terminate || env.util.findSets(deck, 1).size() == 0;
+        return terminate || !deckSets.hasSets();
     }
 
     /**
      * Checks cards should be removed from the table and removes them.
+     * All the pending claims are handled as one batch: they are resolved by press time (earliest first), then the
+     * table is updated and every claimant is notified once. A claim is stale if one of its slots changed since the
+     * player's table snapshot, and conflicting if one of its cards was taken by an earlier claim of the batch.
      */
     public synchronized void removeCardsFromTable() {
-        // TODO implement
-        while(!table.sets.isEmpty()){
-            env.logger.info("Thread " + Thread.currentThread().getName() + " checking set.");
-            int[] cards = table.sets.poll();
-            int playerId = cards[3];
-            int [] cardsOnly = new int[3];
-            for (int i=0; i<cardsOnly.length; i++){
-                cardsOnly[i] = cards[i];
-            }
-            boolean stillOnTable = true;
-            for(int i = 0 ;i<cardsOnly.length;i++){
-                if(table.cardToSlot[cardsOnly[i]] == null){
-                    stillOnTable = false;
-                }
-            }
-            if(stillOnTable){
-                if(env.util.testSet(cardsOnly)){
-                    env.logger.info("Thread " + Thread.currentThread().getName() + " say : this is set!!!!!.");
-                    players[playerId].setChecked = 1;
-                    players[playerId].state = 1;
-                    env.logger.info("Thread " + Thread.currentThread().getName() +" change state to " + players[playerId].state);
-                    env.logger.info("Thread " + Thread.currentThread().getName() +" change setCheck to " + players[playerId].setChecked);
-                    for(int i=0; i<cardsOnly.length; i++){
-                        table.removeCard(table.cardToSlot[cardsOnly[i]]);
-                        deck.remove((Integer)cardsOnly[i]);
-                    }
-                    updateTimerDisplay(true);
-                    synchronized(players[playerId].locked){
-                        players[playerId].locked.notifyAll();
-                        //if(!players[playerId].human){
-                        //    synchronized(players[playerId].aiThread){
-                        //        players[playerId].aiThread.notifyAll();
-                        //    }
-                        //}
-                    }
-                }
-                else{
-                    env.logger.info("Thread " + Thread.currentThread().getName() + " say : this is not set!!!!!.");
-                    players[playerId].state = -1;
-                    players[playerId].setChecked = 1;
-                    env.logger.info("Thread " + Thread.currentThread().getName() +" change state to " + players[playerId].state);
-                    env.logger.info("Thread " + Thread.currentThread().getName() +" change setCheck to " + players[playerId].setChecked);
-                    synchronized(players[playerId].locked){
-                        players[playerId].locked.notifyAll();;
-                        if(!players[playerId].human){
-                            synchronized(players[playerId].aiThread){
-                                players[playerId].aiThread.notifyAll();
-                            }
-                        }
-                    }
-                }
-                synchronized(players[playerId].locked){
-                    players[playerId].locked.notifyAll();;
-                    if(!players[playerId].human){
-                        synchronized(players[playerId].aiThread){
-                            players[playerId].aiThread.notifyAll();
-                        }
-                    }
-                }
+        table.sets.drainTo(claims);
+        if (claims.isEmpty()) return;
+        claims.sort(Claim.BY_PRESS_TIME);
+
+        int stale = 0, conflicting = 0;
+        for (Claim claim : claims) {
+            int[] cards = claim.cards;
+            claimants[claim.player] = true;
+            verdicts[claim.player] = 0;
+
+            boolean free = true;
+            for (int card : cards)
+                if (taken[card]) free = false;
+            if (table.isStale(claim.slots, claim.tableVersion)) {
+                ++stale;
+                staleClaims.incrementAndGet(claim.player);
+            } else if (!free) {
+                ++conflicting;
+                conflictingClaims.incrementAndGet(claim.player);
+            } else if (env.util.testSet(cards)) {
+                for (int card : cards)
+                    taken[card] = true;
+                collected.add(cards);
+                verdicts[claim.player] = 1;
+            } else {
+                verdicts[claim.player] = -1;
             }
-            synchronized(players[playerId].locked){
-                players[playerId].locked.notifyAll();;
-                if(!players[playerId].human){
-                    synchronized(players[playerId].aiThread){
-                        players[playerId].aiThread.notifyAll();
-                    }
+        }
+        env.logger.info("thread " + Thread.currentThread().getName() + " checked " + claims.size() + " claims: "
+                + collected.size() + " sets, " + stale + " stale, " + conflicting + " conflicting.");
+
+        // apply the table changes of the whole batch
+        if (!collected.isEmpty()) {
+            int[] slots = new int[collected.size() * env.config.featureSize];
+            int n = 0;
+            for (int[] cards : collected)
+                for (int card : cards) {
+                    slots[n++] = table.cardToSlot[card];
+                    pile.discard(card);
+                    deckSets.remove(card);
+                    taken[card] = false;
                 }
-            }
+            table.removeCards(slots);
+            updateTimerDisplay(true);
         }
+
+        // let each claimant know the verdict
+        for (Player player : players)
+            if (claimants[player.id]) {
+                claimants[player.id] = false;
+                player.verdict(verdicts[player.id]);
+            }
+        claims.clear();
+        collected.clear();
     }
 
     /**
      * Check if any cards can be removed from the deck and placed on the table.
+     * All the empty slots are filled with the cards of the dealing strategy, as one table change.
      */
     public synchronized void placeCardsOnTable() {
         // TODO implement
-        Random rnd = new Random();
-        int randomCard;
-        while (table.countCards() < env.config.tableSize){
-            int emptySlot = -1;
-            for(int i = 0 ; i < table.slotToCard.length & emptySlot == -1 ; i ++){
-                if(table.slotToCard[i] == null){
-                    emptySlot = i;
-                }
-            }
-            env.logger.info("Thread " + Thread.currentThread().getName() +" found empty slot " + emptySlot);
-            if(deck.size() > 0){
-                randomCard = rnd.nextInt((deck.size() - 1) - 0 + 1);
-                if(table.cardToSlot[deck.get(randomCard)] == null){
-                    table.placeCard(deck.get(randomCard), emptySlot);
-                }
-            }
-            else{
-                terminate();
-            }
-        }
-        for ( int i = 0; i<players.length; i++){
-            synchronized(players[i].locked){
-                players[i].locked.notifyAll();;
-                if(!players[i].human){
-                    synchronized(players[i].aiThread){
-                        players[i].aiThread.notifyAll();
-                    }
-                }
-            }
+        int[] emptySlots = table.emptySlots();
+        int empty = emptySlots.length;
+        if (empty == 0) return;
+        if (pile.remaining() == 0) {
+            terminate();
+            return;
         }
+
+        int count = Math.min(empty, pile.size());
+        int[] cards = dealing.deal(count);
+        env.logger.info("Thread " + Thread.currentThread().getName() + " placing " + count + " cards in "
+                + empty + " empty slots");
+        table.placeCards(cards, Arrays.copyOf(emptySlots, count));
     }
 
     /**
      * Sleep for a fixed amount of time or until the thread is awakened for some purpose.
      */
     private void sleepUntilWokenOrTimeout() {
-        // TODO implement
-        if(reshuffleTime - System.currentTimeMillis() > env.config.turnTimeoutWarningMillis){
-            try {
-                Thread.sleep(env.config.tableDelayMillis);
-            } catch (InterruptedException ignored) {}
-        }
-        else{
-            try {
-                Thread.sleep(10);
-            } catch (InterruptedException ignored) {}
+        long remaining = reshuffleTime - env.clock.millis();
+        long timeout;
+        if (remaining > env.config.turnTimeoutWarningMillis) {
+            // wake up when the displayed second changes or when the warning starts
+            timeout = Math.min((remaining - 1) % 1000 + 1, remaining - env.config.turnTimeoutWarningMillis);
+        } else {
+            timeout = Math.min(WARNING_TICK_MILLIS, remaining);
         }
+
+        // block until a claim arrives (see wake) or the deadline passes
+        if (table.sets.isEmpty()) env.clock.parkMillis(this, timeout);
+    }
+
+    /**
+     * Wakes the dealer thread to check the claims (called by a player after offering a claim).
+     */
+    void wake() {
+        env.clock.unpark(dealerThread);
     }
 
     /**
@@ -236,34 +282,43 @@ public class Dealer implements Runnable {
         // TODO implement
         //env.ui.setCountdown(env.config.turnTimeoutMillis, env.config.turnTimeoutMillis <= env.config.turnTimeoutWarningMillis);
         if (reset){
-            reshuffleTime = System.currentTimeMillis() + env.config.turnTimeoutMillis;
+            reshuffleTime = env.clock.millis() + env.config.turnTimeoutMillis;
         }
-        env.ui.setCountdown(reshuffleTime - System.currentTimeMillis(), reshuffleTime - System.currentTimeMillis() <= env.config.turnTimeoutWarningMillis);
+        env.ui.setCountdown(reshuffleTime - env.clock.millis(), reshuffleTime - env.clock.millis() <= env.config.turnTimeoutWarningMillis);
 
     }
 
     /**
-     * Returns all the cards from the table to the deck.
+     * Returns all the cards from the table to the deck (each to a random position in the pile).
      */
     public void removeAllCardsFromTable() {
         // TODO implement
+        int[] slots = new int[table.slotToCard.length];
+        int n = 0;
         for(int i = 0; i<table.slotToCard.length; i++){
-            if(table.slotToCard[i] != null){
-                table.removeCard(i);
-            }
-        }
-        for(int i = 0;i<players.length;i++)
-        {
-            synchronized(players[i].locked){
-                players[i].locked.notifyAll();
-                if(!players[i].human & players[i].aiThread != null){
-                    synchronized(players[i].aiThread){
-                        players[i].aiThread.notifyAll();
-                    }
-                }
+            if(table.slotToCard[i] != Table.EMPTY){
+                pile.putBack(table.slotToCard[i]);
+                slots[n++] = i;
             }
         }
+        table.removeCards(Arrays.copyOf(slots, n));
     }
+    /**
+     * @param player - the player id.
+     * @return - the number of the player's claims that were rejected because a card had left the table.
+     */
+    public int staleClaims(int player) {
+        return staleClaims.get(player);
+    }
+
+    /**
+     * @param player - the player id.
+     * @return - the number of the player's claims that lost a card to an earlier claim of another player.
+     */
+    public int conflictingClaims(int player) {
+        return conflictingClaims.get(player);
+    }
+
     /**
      * Check who is/are the winner/s and displays them.
      */
@@ -287,6 +342,9 @@ public class Dealer implements Runnable {
             wiPlayers[i] = winners.get(i);
         }
         env.ui.announceWinner(wiPlayers);
+        for (Player player : players)
+            env.logger.info("player " + (player.id + 1) + " claims: " + staleClaims(player.id) + " stale, "
+                    + conflictingClaims(player.id) + " conflicting.");
 
     }
 }
@@ -0,0 +1,40 @@
+package bguspl.set.ex;
+
+import bguspl.set.Env;
+
+/**
+ * How the dealer draws the cards that refill the table (see Config.dealingStrategy).
+ */
+interface DealingStrategy {
+
+    /**
+     * Draws the cards for a refill of the table.
+     *
+     * @param count - the number of cards to draw (at most the number of cards in the pile).
+     * @return - the cards drawn, to be placed in the empty slots.
+     */
+    int[] deal(int count);
+
+    /**
+     * @param env   - the game environment objects.
+     * @param pile  - the dealer's draw pile.
+     * @param table - the table the cards are placed on.
+     * @return - the configured strategy (random if the configured one is unknown).
+     */
+    static DealingStrategy create(Env env, DrawPile pile, Table table) {
+        switch (env.config.dealingStrategy) {
+            case "guaranteed":
+                return new GuaranteedSetDealing(env, pile, table);
+            case "random":
+                break;
+            default:
+                env.logger.severe("unknown dealing strategy: " + env.config.dealingStrategy + ", using random.");
+        }
+        return count -> {
+            int[] cards = new int[count];
+            for (int i = 0; i < count; i++)
+                cards[i] = pile.draw();
+            return cards;
+        };
+    }
+}
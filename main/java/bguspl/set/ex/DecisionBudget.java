@@ -0,0 +1,87 @@
+package bguspl.set.ex;
+
+import bguspl.set.Clock;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * The CPU time budget of one decision of a computer player (see BotStrategy.decide). Measures the CPU time of the
+ * current thread, or the elapsed time where the runtime cannot measure it (e.g. on virtual threads) or on a given
+ * clock.
+ */
+public final class DecisionBudget {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    /**
+     * The CPU time the decision may use.
+     */
+    private final long limitNanos;
+
+    /**
+     * The clock the elapsed time is measured on (null to measure the CPU time where the runtime can).
+     */
+    private final Clock clock;
+
+    /**
+     * True iff the CPU time of the thread is measured (otherwise the elapsed time is).
+     */
+    private boolean cpuTime;
+
+    private long start;
+
+    DecisionBudget(long limitNanos) {
+        this(limitNanos, null);
+    }
+
+    /**
+     * @param limitNanos - the time a decision may use.
+     * @param clock      - the clock to measure the elapsed time on instead of the CPU time (null for the CPU time).
+     */
+    DecisionBudget(long limitNanos, Clock clock) {
+        this.limitNanos = limitNanos;
+        this.clock = clock;
+    }
+
+    /**
+     * Starts measuring a decision (called by the AI thread before each decision).
+     */
+    void start() {
+        cpuTime = clock == null && THREADS.isCurrentThreadCpuTimeSupported() && THREADS.getCurrentThreadCpuTime() >= 0;
+        start = now();
+    }
+
+    /**
+     * @return - the time the decision used so far, in nanoseconds.
+     */
+    public long usedNanos() {
+        return now() - start;
+    }
+
+    private long now() {
+        if (cpuTime) return THREADS.getCurrentThreadCpuTime();
+        return clock != null ? clock.nanos() : System.nanoTime();
+    }
+
+    /**
+     * @return - the time the decision may use, in nanoseconds.
+     */
+    public long limitNanos() {
+        return limitNanos;
+    }
+
+    /**
+     * @return - the time the decision may still use, in nanoseconds (negative once it is over budget).
+     */
+    public long remainingNanos() {
+        return limitNanos - usedNanos();
+    }
+
+    /**
+     * @return - true iff the decision used more than its budget (its presses will be dropped).
+     */
+    public boolean exceeded() {
+        return usedNanos() > limitNanos;
+    }
+}
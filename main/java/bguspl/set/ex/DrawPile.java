@@ -0,0 +1,152 @@
+package bguspl.set.ex;
+
+import java.util.Random;
+
+/**
+ * The dealer's cards: the draw pile, shuffled once (Fisher-Yates) when the game starts, and where every card is.
+ * Drawing (the top card or a given card), discarding and putting a card back are O(1). A card put back goes to a
+ * random position in the pile (one more Fisher-Yates step), so the pile stays uniformly shuffled without shuffling it
+ * again.
+ * Note: this class is not thread safe (it is used by the dealer thread only).
+ *
+ * @inv 0 <= size <= pile.length
+ * @inv position[pile[i]] == i for every 0 <= i < size
+ */
+class DrawPile {
+
+    /**
+     * Where a card is.
+     */
+    private static final byte IN_PILE = 0;
+    private static final byte ON_TABLE = 1;
+    private static final byte DISCARDED = 2;
+
+    /**
+     * The cards in the pile (only the first size entries are used, the top of the pile is the last).
+     */
+    private final int[] pile;
+    private int size;
+
+    /**
+     * The position of each card in the pile array (valid only for the cards in the pile).
+     */
+    private final int[] position;
+
+    /**
+     * Where each card is.
+     */
+    private final byte[] location;
+
+    /**
+     * The number of cards drawn and not yet discarded or put back.
+     */
+    private int onTable;
+
+    private final Random random;
+
+    /**
+     * @param deckSize - the number of cards (cards are 0 to deckSize - 1).
+     * @param seed     - the seed of the shuffle (the same seed deals the same game).
+     */
+    DrawPile(int deckSize, long seed) {
+        pile = new int[deckSize];
+        position = new int[deckSize];
+        location = new byte[deckSize];
+        random = new Random(seed);
+        for (int i = 0; i < deckSize; ++i) {
+            pile[i] = i;
+            position[i] = i;
+        }
+        for (int i = deckSize - 1; i > 0; --i)
+            swap(i, random.nextInt(i + 1));
+        size = deckSize;
+    }
+
+    private void swap(int i, int j) {
+        int card = pile[i];
+        pile[i] = pile[j];
+        pile[j] = card;
+        position[pile[i]] = i;
+        position[pile[j]] = j;
+    }
+
+    /**
+     * Draws the top card of the pile.
+     *
+     * @return - the card drawn (Table.EMPTY if the pile is empty).
+     */
+    int draw() {
+        if (size == 0) return Table.EMPTY;
+        int card = pile[--size];
+        location[card] = ON_TABLE;
+        ++onTable;
+        return card;
+    }
+
+    /**
+     * Draws a given card from the pile (wherever it is in the pile).
+     *
+     * @param card - a card in the pile.
+     * @return - the card drawn.
+     */
+    int draw(int card) {
+        if (location[card] != IN_PILE) throw new IllegalStateException("card " + card + " is not in the pile");
+        swap(position[card], size - 1);
+        return draw();
+    }
+
+    /**
+     * Takes a drawn card out of the game (e.g. after it was part of a legal set).
+     *
+     * @param card - a card that was drawn.
+     */
+    void discard(int card) {
+        if (location[card] != ON_TABLE) throw new IllegalStateException("card " + card + " was not drawn");
+        location[card] = DISCARDED;
+        --onTable;
+    }
+
+    /**
+     * Puts a drawn card back in the pile, at a random position.
+     *
+     * @param card - a card that was drawn.
+     */
+    void putBack(int card) {
+        if (location[card] != ON_TABLE) throw new IllegalStateException("card " + card + " was not drawn");
+        location[card] = IN_PILE;
+        --onTable;
+        pile[size] = card;
+        position[card] = size;
+        swap(size, random.nextInt(size + 1));
+        ++size;
+    }
+
+    /**
+     * @return - the number of cards in the pile.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return - the number of cards drawn and not yet discarded or put back.
+     */
+    int onTable() {
+        return onTable;
+    }
+
+    /**
+     * @return - the number of cards still in the game (in the pile or drawn).
+     */
+    int remaining() {
+        return size + onTable;
+    }
+
+    boolean inPile(int card) {
+        return location[card] == IN_PILE;
+    }
+
+    boolean isDrawn(int card) {
+        return location[card] == ON_TABLE;
+    }
+}
@@ -0,0 +1,125 @@
+package bguspl.set.ex;
+
+import bguspl.set.Combinations;
+import bguspl.set.Env;
+
+/**
+ * Deals the top cards of the pile, unless the table would then have no legal set: in that case one of the cards
+ * drawn is swapped for a card from the pile that completes a set with the cards on the table (if the pile has one).
+ * The check is O(1) when the table already has a set and O(n^(featureSize - 1)) in the cards on the table otherwise.
+ * Note: for sets of fewer than 3 cards the completing card is not unique, so the top cards are dealt as they are.
+ */
+class GuaranteedSetDealing implements DealingStrategy {
+
+    /**
+     * The game environment object.
+     */
+    private final Env env;
+
+    private final DrawPile pile;
+    private final Table table;
+
+    /**
+     * Buffers reused when looking for a set: the cards on the table after the refill, the chosen ones and their
+     * positions.
+     */
+    private final int[] cards;
+    private final int[] chosen;
+    private final int[] combination;
+
+    /**
+     * Marks the cards in the cards buffer (by card id), so a completing card is looked up in O(1).
+     */
+    private final boolean[] inRefill;
+
+    /**
+     * A card in the pile that completes a set with the refill, and the position (in the cards drawn) of the card it
+     * replaces (found by deal).
+     */
+    private int completing;
+    private int replaced;
+
+    GuaranteedSetDealing(Env env, DrawPile pile, Table table) {
+        this.env = env;
+        this.pile = pile;
+        this.table = table;
+        int setSize = env.config.featureSize;
+        cards = new int[env.config.tableSize];
+        chosen = new int[Math.max(setSize - 1, 0)];
+        combination = new int[Math.max(setSize - 1, 0)];
+        inRefill = new boolean[env.config.deckSize];
+    }
+
+    @Override
+    public int[] deal(int count) {
+        int[] drawn = new int[count];
+        for (int i = 0; i < count; i++)
+            drawn[i] = pile.draw();
+        if (count == 0 || env.config.featureSize < 3 || table.hasSets()) return drawn;
+
+        // the cards on the table after the refill: first the ones on it, then the ones drawn
+        int firstDrawn = cardsOnTable();
+        System.arraycopy(drawn, 0, cards, firstDrawn, count);
+        int n = firstDrawn + count;
+
+        int k = chosen.length;
+        if (n < k) return drawn;
+
+        for (int i = 0; i < n; ++i)
+            inRefill[cards[i]] = true;
+        completing = Table.EMPTY;
+        replaced = -1;
+        boolean noSet = Combinations.forEach(combination, 0, n, positions -> {
+            for (int i = 0; i < k; ++i)
+                chosen[i] = cards[positions[i]];
+
+            int last = env.util.completeSet(chosen);
+            if (last >= 0) {
+                if (inRefill[last]) return false; // the refill already has a set
+                if (completing == Table.EMPTY && pile.inPile(last)) {
+                    int position = drawnNotChosen(firstDrawn, n);
+                    if (position >= 0) {
+                        completing = last;
+                        replaced = position - firstDrawn;
+                    }
+                }
+            }
+            return true;
+        });
+        for (int i = 0; i < n; ++i)
+            inRefill[cards[i]] = false;
+
+        if (noSet && completing != Table.EMPTY) {
+            pile.putBack(drawn[replaced]);
+            drawn[replaced] = pile.draw(completing);
+        }
+        return drawn;
+    }
+
+    /**
+     * Fills the cards buffer with the cards on the table.
+     *
+     * @return - the number of cards on the table.
+     */
+    private int cardsOnTable() {
+        TableSnapshot snapshot = table.snapshot();
+        int n = 0;
+        for (int slot = 0; slot < snapshot.size(); ++slot)
+            if (snapshot.card(slot) != Table.EMPTY) cards[n++] = snapshot.card(slot);
+        return n;
+    }
+
+    /**
+     * The combination is in increasing order, so it is walked backwards along with the positions: O(featureSize).
+     *
+     * @return - the position (in cards) of a card drawn that is not in the current combination (-1 if none).
+     */
+    private int drawnNotChosen(int firstDrawn, int n) {
+        int chosenIndex = combination.length - 1;
+        for (int position = n - 1; position >= firstDrawn; --position) {
+            if (chosenIndex < 0 || combination[chosenIndex] != position) return position;
+            --chosenIndex;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,138 @@
+package bguspl.set.ex;
+
+import bguspl.set.Clock;
+import bguspl.set.RealClock;
+
+/**
+ * A fixed-capacity, lock-free queue of key presses (slots) from a single producer (the UI or AI thread) to a single
+ * consumer (the player thread). Slots are kept as primitives, together with the time (Clock.nanos) of the press.
+ * A consumer waiting on an empty queue (or a producer waiting on a full one) is parked on the clock until the other
+ * side acts.
+ *
+ * @inv 0 <= tail - head <= capacity
+ */
+class KeyQueue {
+
+    private final int[] slots;
+    private final long[] pressTimes;
+    private final int mask;
+
+    private final Clock clock;
+
+    /**
+     * The number of presses taken (written by the consumer only) and offered (written by the producer only).
+     */
+    private volatile long head;
+    private volatile long tail;
+
+    /**
+     * The threads currently parked waiting for a press to arrive or for room to be made (null if none).
+     */
+    private volatile Thread waitingConsumer;
+    private volatile Thread waitingProducer;
+
+    /**
+     * The time of the last press taken (read by the consumer only).
+     */
+    private long pressTime;
+
+    /**
+     * @param capacity - the minimal number of presses the queue can hold (rounded up to a power of 2).
+     */
+    KeyQueue(int capacity) {
+        this(capacity, new RealClock());
+    }
+
+    /**
+     * @param capacity - the minimal number of presses the queue can hold (rounded up to a power of 2).
+     * @param clock    - the game clock (press times, waiting).
+     */
+    KeyQueue(int capacity, Clock clock) {
+        this.clock = clock;
+        int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        slots = new int[size];
+        pressTimes = new long[size];
+        mask = size - 1;
+    }
+
+    /**
+     * Adds a press without blocking (producer only).
+     *
+     * @param slot - the slot that was pressed.
+     * @return - true iff the press was added (false if the queue is full).
+     */
+    boolean offer(int slot) {
+        long t = tail;
+        if (t - head == slots.length) return false;
+        slots[(int) t & mask] = slot;
+        pressTimes[(int) t & mask] = clock.nanos();
+        tail = t + 1;
+        clock.unpark(waitingConsumer);
+        return true;
+    }
+
+    /**
+     * Adds a press, waiting while the queue is full (producer only).
+     *
+     * @param slot - the slot that was pressed.
+     * @throws InterruptedException - if interrupted while waiting.
+     */
+    void put(int slot) throws InterruptedException {
+        while (!offer(slot)) {
+            waitingProducer = Thread.currentThread();
+            if (tail - head == slots.length) clock.park(this);
+            waitingProducer = null;
+            if (Thread.interrupted()) throw new InterruptedException();
+        }
+    }
+
+    /**
+     * Removes the oldest press, waiting while the queue is empty (consumer only).
+     *
+     * @return - the slot that was pressed (its press time is then available from pressTime()).
+     * @throws InterruptedException - if interrupted while waiting.
+     */
+    int take() throws InterruptedException {
+        while (true) {
+            long h = head;
+            if (h != tail) {
+                int slot = slots[(int) h & mask];
+                pressTime = pressTimes[(int) h & mask];
+                head = h + 1;
+                clock.unpark(waitingProducer);
+                return slot;
+            }
+            waitingConsumer = Thread.currentThread();
+            if (h == tail) clock.park(this);
+            waitingConsumer = null;
+            if (Thread.interrupted()) throw new InterruptedException();
+        }
+    }
+
+    /**
+     * @return - the time (Clock.nanos) of the press last returned by take (consumer only).
+     */
+    long pressTime() {
+        return pressTime;
+    }
+
+    /**
+     * Drops all the pending presses (consumer only).
+     *
+     * @return - the number of presses dropped.
+     */
+    int clear() {
+        long t = tail;
+        int dropped = (int) (t - head);
+        head = t;
+        clock.unpark(waitingProducer);
+        return dropped;
+    }
+
+    /**
+     * @return - the number of pending presses.
+     */
+    int size() {
+        return (int) (tail - head);
+    }
+}
@@ -1,7 +1,9 @@
 package bguspl.set.ex;
 
-import java.util.LinkedList;
 import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 import bguspl.set.Env;
 
@@ -13,6 +15,11 @@ import bguspl.set.Env;
  */
 public class Player implements Runnable {
 
+    /**
+     * How long a computer player waits before asking its strategy again after a decision with no presses.
+     */
+    private static final long RETRY_MILLIS = 10;
+
     /**
      * The game environment object.
      */
@@ -31,12 +38,17 @@ public class Player implements Runnable {
     /**
      * The thread representing the current player.
      */
-    public Thread playerThread;
+    public volatile Thread playerThread;
 
     /**
      * The thread of the AI (computer) player (an additional thread used to generate key presses).
      */
-    public Thread aiThread;
+    public volatile Thread aiThread;
+
+    /**
+     * Released when the AI loop ends (the AI may run on a pooled thread, which cannot be joined).
+     */
+    private final CountDownLatch aiTerminated = new CountDownLatch(1);
 
     /**
      * True iff the player is human (not a computer player).
@@ -56,15 +68,41 @@ public class Player implements Runnable {
 
     private final Dealer dealer;
 
-    final int numOfActions = 3;
+    /**
+     * The number of tokens a player places to claim a set (the number of cards in a set).
+     */
+    final int numOfActions;
+
+    /**
+     * The slots on which the player placed its tokens.
+     */
+    final TokenBuffer actions;
+
+    /**
+     * The key presses waiting for the player thread to apply them.
+     */
+    final KeyQueue keyPresses;
 
-    public LinkedList<Integer> actions = new LinkedList<>();
+    /**
+     * The number of key presses the player thread took from keyPresses and applied or dropped (written by the player
+     * thread only). The AI waits for its presses to be handled before choosing the next ones.
+     */
+    private volatile long handledPresses;
 
+    /**
+     * True iff the player is frozen (after a point or a penalty): its key presses are ignored until the freeze expires.
+     */
+    private volatile boolean frozen;
+
+    /**
+     * The verdict on the player's last claim (1 point, -1 penalty, 0 stale), valid once setChecked is 1.
+     */
     int state = 0;
-    
-    int setChecked = 1;
 
-    Object locked = new Object();
+    /**
+     * 0 while the player waits for the dealer to check its claim, 1 otherwise.
+     */
+    volatile int setChecked = 1;
 
     /**
      * The class constructor.
@@ -81,6 +119,9 @@ public class Player implements Runnable {
         this.id = id;
         this.human = human;
         this.dealer = dealer;
+        numOfActions = env.config.featureSize;
+        actions = new TokenBuffer(numOfActions, env.config.tableSize);
+        keyPresses = new KeyQueue(numOfActions, env.clock);
     }
 
     /**
@@ -89,88 +130,118 @@ public class Player implements Runnable {
     @Override
     public void run() {
         playerThread = Thread.currentThread();
+        env.clock.threadStarted();
         env.logger.info("thread " + Thread.currentThread().getName() + " starting.");
         if (!human) createArtificialIntelligence();
 
         while (!terminate) {
-            // TODO implement main player loop
-
-            // if (actions.size() == numOfActions){
-            //     // synchronized(dealer){
-            //     //     dealer.notify();
-            //     // }
-            //     try {
-            //         synchronized(this){
-            //             this.wait();
-            //         }
-            //     } catch (InterruptedException e) {
-            //         // TODO Auto-generated catch block
-            //         e.printStackTrace();
-            //     }
-            // }
-
-            {
-                try {
-                    if (setChecked == 0){
-                        synchronized(locked){
-                            locked.wait();
-                        }
-                    }
-                } catch (InterruptedException e) {
-                    // TODO Auto-generated catch block
-                    e.printStackTrace();
+            // wait for the dealer to check the last claim (if any), see verdict
+            while (setChecked == 0 && !terminate)
+                env.clock.park(this);
+
+            // the tokens stay until the claim is checked
+            if (actions.isFull()) {
+                if (state == 1) point();
+                else if (state == -1) penalty();
+                else {
+                    removeAllTokens(); // stale: some of the claimed cards left the table
+                    wakeArtificialIntelligence();
                 }
+                state = 0;
             }
-            
-            if (setChecked == 1){
-                synchronized(locked){
-                    locked.notifyAll();   
-                }
-            }
-            //env.logger.info("state  " + state);
-            if (state == -1){
-                penalty();
-            }
-            else if (state == 1){
-                point();
-            }
-            state = 0;
-            // synchronized(aiThread){
-            //     aiThread.notify();
-            // }
 
+            // apply the next key press
+            try {
+                int slot = keyPresses.take();
+                applyKeyPress(slot, keyPresses.pressTime());
+                pressesHandled(1);
+            } catch (InterruptedException ignored) {}
         }
 
-        if (!human) try { aiThread.join(); } catch (InterruptedException ignored) {}
+        if (!human) try { aiTerminated.await(); } catch (InterruptedException ignored) {}
         env.logger.info("Thread " + Thread.currentThread().getName() + " terminated.");
+        env.clock.threadEnded();
     }
 
     /**
-     * Creates an additional thread for an AI (computer) player. The main loop of this thread repeatedly generates
-     * key presses. If the queue of key presses is full, the thread waits until it is not full.
+     * Starts an additional loop for an AI (computer) player, on the dealer's player threads. The loop repeatedly
+     * waits out the strategy's reaction time (see BotStrategy), then asks it for key presses, within the decision
+     * budget. It waits until its presses were handled, and while the player has placed all of its tokens or is
+     * frozen.
      */
     private void createArtificialIntelligence() {
-        // note: this is a very, very smart AI (!)
-        aiThread = new Thread(() -> {
+        BotStrategy strategy = BotStrategy.load(env);
+        strategy.init(env, id);
+        TableView view = new TableView(table);
+        env.clock.threadStarting();
+        dealer.threads.start(() -> {
+            aiThread = Thread.currentThread();
+            env.clock.threadStarted();
             env.logger.info("thread " + Thread.currentThread().getName() + " starting.");
+            Random random = ThreadLocalRandom.current();
+            long budgetNanos = TimeUnit.MILLISECONDS.toNanos(env.config.computerDecisionBudgetMillis);
+            DecisionBudget budget = new DecisionBudget(budgetNanos);
+            long pressed = 0, decisions = 0, overBudget = 0, usedNanos = 0;
             while (!terminate) {
-                // TODO implement player key press simulator
-                Random rnd = new Random();
-                int randomSlot = rnd.nextInt((env.config.tableSize- 1) - 0 + 1);
-                keyPressed(randomSlot);
-                while(actions.size()==numOfActions){
-                    try {
-                        synchronized (aiThread) { aiThread.wait(); }
-                    } catch (InterruptedException ignored) {}
-                }
-                synchronized(this){
-                    this.notifyAll();
-                }
-
+                try {
+                    env.clock.sleep(strategy.reactionMillis(random)); // not part of the decision budget
+                    budget.start();
+                    int[] presses = strategy.decide(view, actions.toArray(), random, budget);
+                    long used = budget.usedNanos();
+                    ++decisions;
+                    usedNanos += used;
+                    if (used > budget.limitNanos()) {
+                        ++overBudget;
+                        env.logger.warning("bot " + id + " (" + strategy.name() + ") went over budget: " + used
+                                + "ns.");
+                        presses = new int[0];
+                    }
+                    for (int slot : presses) {
+                        keyPresses.put(slot);
+                        ++pressed;
+                    }
+                    if (presses.length == 0) env.clock.sleep(RETRY_MILLIS); // nothing to press yet, look again later
+                } catch (InterruptedException ignored) {}
+                while ((handledPresses < pressed || actions.isFull() || frozen) && !terminate)
+                    env.clock.park(this); // see wakeArtificialIntelligence
             }
+            env.logger.info("bot " + id + " (" + strategy.name() + ") made " + decisions + " decisions, "
+                    + (decisions == 0 ? 0 : usedNanos / decisions) + "ns each on average, " + overBudget
+                    + " over budget.");
             env.logger.info("thread " + Thread.currentThread().getName() + " terminated.");
+            env.clock.threadEnded();
+            aiTerminated.countDown();
         }, "computer-" + id);
-        aiThread.start();
+    }
+
+    /**
+     * Counts key presses as handled and lets the AI (if any) know (called by the player thread).
+     *
+     * @param presses - the number of presses applied or dropped.
+     */
+    private void pressesHandled(int presses) {
+        if (presses == 0) return;
+        handledPresses += presses;
+        wakeArtificialIntelligence();
+    }
+
+    /**
+     * Wakes the AI thread (if any) after its presses were handled, the player's tokens were removed or its freeze
+     * expired.
+     */
+    private void wakeArtificialIntelligence() {
+        if (!human) env.clock.unpark(aiThread);
+    }
+
+    /**
+     * Called by the dealer with the verdict on the player's claim: wakes the player thread (only) to act on it.
+     *
+     * @param verdict - 1 for a point, -1 for a penalty, 0 if the claim was stale.
+     */
+    void verdict(int verdict) {
+        state = verdict;
+        setChecked = 1;
+        env.clock.unpark(playerThread);
     }
 
     /**
@@ -179,49 +250,57 @@ public class Player implements Runnable {
     public void terminate() {
         // TODO implement
         terminate = true;
+        if (playerThread != null) playerThread.interrupt();
+        if (aiThread != null) aiThread.interrupt();
     }
 
     /**
-     * This method is called when a key is pressed.
+     * This method is called when a key is pressed. It only queues the key press for the player thread and returns
+     * immediately (the press is dropped if the queue is full or the player is frozen), so it never blocks the calling
+     * (UI) thread.
+     *
+     * The keys of a computer player are ignored: only its AI queues presses for it (the key queue has one producer).
      *
      * @param slot - the slot corresponding to the key pressed.
      */
     public void keyPressed(int slot) {
-        synchronized(table){
-        if (table.slotToCard[slot] != null){
-            if (actions.contains(slot)){
-                // if (actions.size() == numOfActions){
-                //     synchronized(actions){
-                //         actions.notify();   
-                //     }
-                // }
+        if (!human || frozen) return;
+        keyPresses.offer(slot);
+    }
+
+    /**
+     * Applies a key press (called by the player thread): toggles the player's token on the slot and makes a claim
+     * when the player has placed all of its tokens.
+     *
+     * Only the player thread touches the player's tokens, so this needs no lock. The card checks and the claim use a
+     * single snapshot of the table, so the claim is made against the version the press was checked against.
+     *
+     * @param slot      - the slot corresponding to the key pressed.
+     * @param pressTime - the time (Clock.nanos) the key was pressed.
+     */
+    void applyKeyPress(int slot, long pressTime) {
+        if (frozen) return;
+        TableSnapshot snapshot = table.snapshot();
+        if (snapshot.card(slot) != Table.EMPTY){
+            if (actions.remove(slot)){
                 table.removeToken(id, slot);
-                actions.remove((Integer)slot);
             }
         
             else {
-                if(actions.size() < numOfActions){
+                if(actions.add(slot)){
                     table.placeToken(id, slot);
-                    actions.add(slot);
                     env.logger.info("actions size of " + Thread.currentThread().getName() + " is " + actions.size());
-                    if(actions.size() == numOfActions){
-                        int[] cards = new int[numOfActions+1];
-                        for(int i = 0 ; i < numOfActions ; i ++){
-                            int sloty = actions.get(i);
-                            while (table.slotToCard[sloty] == null){
-                                try {
-                                    Thread.sleep(env.config.pointFreezeMillis/10);
-                                } catch (InterruptedException e) {
-                                    // TODO Auto-generated catch block
-                                    e.printStackTrace();
-                                }
-                            }
-                            cards[i] = table.slotToCard[sloty];
-                        }
-                        cards[numOfActions] = id;
-            
-                        table.sets.offer(cards);
-                        setChecked = 0;
+                    if(actions.isFull()){
+                        if (dropEmptySlots(snapshot)) return; // a claimed card left the table: no claim
+                        int[] slots = new int[numOfActions];
+                        for (int i = 0; i < numOfActions; ++i)
+                            slots[i] = actions.get(i);
+                        int[] cards = new int[numOfActions];
+                        for (int i = 0; i < numOfActions; ++i)
+                            cards[i] = snapshot.card(slots[i]);
+                        setChecked = 0; // before offering, the dealer may check the claim right away
+                        table.sets.offer(new Claim(id, slots, cards, pressTime, snapshot.version()));
+                        dealer.wake();
                     
                         env.logger.info("tread " + Thread.currentThread().getName() + " set added");
                         env.logger.info("num of sets to check " + table.sets.size());
@@ -229,9 +308,27 @@ public class Player implements Runnable {
                 }
             }
         }
+    }
+
+    /**
+     * Removes the player's tokens from the slots that are empty in a snapshot (their cards left the table after the
+     * tokens were placed), so the player places them again instead of claiming a set with a missing card.
+     *
+     * @param snapshot - the table to check the tokens against.
+     * @return - true iff a token was removed.
+     */
+    private boolean dropEmptySlots(TableSnapshot snapshot) {
+        boolean dropped = false;
+        for (int i = actions.size() - 1; i >= 0; --i) {
+            int slot = actions.get(i);
+            if (snapshot.card(slot) == Table.EMPTY) {
+                actions.remove(slot);
+                table.removeToken(id, slot);
+                dropped = true;
+            }
         }
+        return dropped;
     }
-    
 
     /**
      * Award a point to a player and perform other related actions.
@@ -241,20 +338,7 @@ public class Player implements Runnable {
      */
     public void point() {
         // TODO implement
-        for (int i = 0; i<actions.size(); i++){
-            table.removeToken(id, actions.get(i));
-        } 
-        env.ui.setFreeze(id, env.config.pointFreezeMillis);
-        try {
-            Thread.sleep(env.config.pointFreezeMillis);
-            //aiThread.sleep(env.config.pointFreezeMillis);
-        } catch (InterruptedException e) {
-            // TODO Auto-generated catch block
-            e.printStackTrace();
-        }
-       
-        actions.clear();
-        env.ui.setFreeze(id, 0);
+        freeze(env.config.pointFreezeMillis);
 
         int ignored = table.countCards(); // this part is just for demonstration in the unit tests
         env.ui.setScore(id, ++score);
@@ -263,20 +347,50 @@ public class Player implements Runnable {
     /**
      * Penalize a player and perform other related actions.
      */
-    public synchronized void penalty() {
-        env.ui.setFreeze(id, env.config.penaltyFreezeMillis);
-        try {
-            Thread.sleep(env.config.penaltyFreezeMillis);
-        } catch (InterruptedException e) {
-            // TODO Auto-generated catch block
-            e.printStackTrace();
+    public void penalty() {
+        freeze(env.config.penaltyFreezeMillis);
+    }
+
+    /**
+     * Removes the player's tokens and ignores its key presses until the freeze expires. The player thread does not
+     * sleep: the expiry is scheduled on the game clock (the timer wheel shared by all the players, in real time).
+     *
+     * @param millis - the duration of the freeze.
+     */
+    private void freeze(long millis) {
+        removeAllTokens();
+        if (millis <= 0) {
+            unfreeze();
+            return;
         }
-        for(int i=0; i<actions.size(); i++){
+
+        frozen = true;
+        pressesHandled(keyPresses.clear()); // keys pressed while frozen are ignored
+        env.ui.setFreeze(id, millis);
+        env.clock.schedule(this::unfreeze, millis);
+    }
+
+    /**
+     * Called by the game clock when the freeze expires (or right away for a freeze of no time).
+     */
+    private void unfreeze() {
+        frozen = false;
+        env.ui.setFreeze(id, 0);
+        wakeArtificialIntelligence();
+    }
+
+    private void removeAllTokens() {
+        for (int i = 0; i < actions.size(); i++){
             table.removeToken(id, actions.get(i));
         }
         actions.clear();
-        env.ui.setFreeze(id, 0);
-        
+    }
+
+    /**
+     * @return - true iff the player is frozen.
+     */
+    boolean isFrozen() {
+        return frozen;
     }
 
     public int score() {
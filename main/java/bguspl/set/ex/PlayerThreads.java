@@ -0,0 +1,139 @@
+package bguspl.set.ex;
+
+import bguspl.set.Env;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the player and computer player loops, as configured by Config.playerThreads:
+ * a platform thread per loop, a virtual thread per loop (looked up by reflection, so the game still runs on Java 8),
+ * or a pool of daemon threads.
+ *
+ * Note: the loops block while waiting for key presses and verdicts, so the pool has exactly one thread per loop: it
+ * only saves creating the threads one by one, not threads.
+ */
+abstract class PlayerThreads {
+
+    /**
+     * Starts a loop.
+     *
+     * @param loop - the loop to run.
+     * @param name - the name of the loop (and of its thread, if it gets its own).
+     */
+    abstract void start(Runnable loop, String name);
+
+    /**
+     * Releases the threads of the loops that have ended.
+     */
+    void shutdown() {}
+
+    /**
+     * @param env   - the game environment objects.
+     * @param loops - the number of loops that will be started.
+     * @return - the configured kind of threads (pooled if virtual threads were asked for but are not supported).
+     */
+    static PlayerThreads create(Env env, int loops) {
+        switch (env.config.playerThreads) {
+            case "virtual":
+                PlayerThreads virtual = Virtual.create();
+                if (virtual != null) return virtual;
+                env.logger.warning("virtual threads are not supported by this runtime, using a pool instead.");
+                return pooled(loops);
+            case "pooled":
+                return pooled(loops);
+            case "platform":
+                return new Platform();
+            default:
+                env.logger.severe("unknown player threads: " + env.config.playerThreads + ", using platform threads.");
+                return new Platform();
+        }
+    }
+
+    /**
+     * @return - a pool with a thread per loop.
+     */
+    private static PlayerThreads pooled(int loops) {
+        return new Pooled(loops);
+    }
+
+    private static final class Platform extends PlayerThreads {
+        @Override
+        void start(Runnable loop, String name) {
+            new Thread(loop, name).start();
+        }
+    }
+
+    private static final class Virtual extends PlayerThreads {
+        private final Method ofVirtual;
+        private final Method setName;
+        private final Method start;
+
+        private Virtual(Method ofVirtual, Method setName, Method start) {
+            this.ofVirtual = ofVirtual;
+            this.setName = setName;
+            this.start = start;
+        }
+
+        /**
+         * @return - virtual threads, or null if the runtime does not support them (before Java 21, or as a preview).
+         */
+        static Virtual create() {
+            try {
+                Method ofVirtual = Thread.class.getMethod("ofVirtual");
+                Class<?> builder = Class.forName("java.lang.Thread$Builder");
+                Virtual virtual = new Virtual(ofVirtual, builder.getMethod("name", String.class),
+                        builder.getMethod("start", Runnable.class));
+                ofVirtual.invoke(null); // throws if virtual threads are a disabled preview feature
+                return virtual;
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return null;
+            }
+        }
+
+        @Override
+        void start(Runnable loop, String name) {
+            try {
+                start.invoke(setName.invoke(ofVirtual.invoke(null), name), loop);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("failed to start virtual thread " + name, e);
+            }
+        }
+    }
+
+    private static final class Pooled extends PlayerThreads {
+        private final ExecutorService pool;
+
+        Pooled(int size) {
+            AtomicInteger count = new AtomicInteger();
+            pool = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), loop -> {
+                Thread thread = new Thread(loop, "player-pool-" + count.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        @Override
+        void start(Runnable loop, String name) {
+            pool.execute(() -> {
+                Thread thread = Thread.currentThread();
+                String poolName = thread.getName();
+                thread.setName(name);
+                try {
+                    loop.run();
+                } finally {
+                    thread.setName(poolName);
+                }
+            });
+        }
+
+        @Override
+        void shutdown() {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package bguspl.set.ex;
+
+import bguspl.set.Env;
+
+import java.util.Random;
+
+/**
+ * A computer player that presses a random slot each time.
+ */
+class RandomStrategy implements BotStrategy {
+
+    private int tableSize;
+
+    @Override
+    public String name() {
+        return "random";
+    }
+
+    @Override
+    public void init(Env env, int player) {
+        tableSize = env.config.tableSize;
+    }
+
+    @Override
+    public int[] decide(TableView table, int[] tokens, Random random, DecisionBudget budget) {
+        return new int[]{random.nextInt(tableSize)};
+    }
+}
@@ -0,0 +1,116 @@
+package bguspl.set.ex;
+
+import bguspl.set.CardStore;
+import bguspl.set.Combinations;
+import bguspl.set.Env;
+
+/**
+ * This class counts the legal sets in a collection of cards that changes one card at a time.
+ * Adding or removing a card costs O(cards) for 3-card sets (O(n^(featureSize - 2)) in general),
+ * while checking whether any set is left is O(1).
+ *
+ * @inv count == the number of legal sets among the cards in the collection
+ */
+class SetCounter {
+
+    /**
+     * The game environment object.
+     */
+    private final Env env;
+
+    /**
+     * The number of cards in a legal set.
+     */
+    private final int setSize;
+
+    /**
+     * The cards in the collection.
+     */
+    private final CardStore cards;
+
+    /**
+     * The number of legal sets among the cards in the collection.
+     */
+    private long count;
+
+    /**
+     * Buffers reused when counting the sets of a card.
+     */
+    private final int[] chosen;
+    private final int[] combination;
+
+    /**
+     * The sets counted so far by countSetsWith.
+     */
+    private long counted;
+
+    SetCounter(Env env) {
+        this.env = env;
+        setSize = env.config.featureSize;
+        cards = new CardStore(env.config.deckSize);
+        chosen = new int[Math.max(setSize - 1, 0)];
+        combination = new int[Math.max(setSize - 2, 0)];
+    }
+
+    /**
+     * Adds a card to the collection.
+     *
+     * @param card - the card to add.
+     */
+    void add(int card) {
+        if (cards.contains(card)) return;
+        count += countSetsWith(card);
+        cards.add(card);
+    }
+
+    /**
+     * Removes a card from the collection.
+     *
+     * @param card - the card to remove.
+     */
+    void remove(int card) {
+        if (cards.remove(card))
+            count -= countSetsWith(card);
+    }
+
+    /**
+     * @return - the number of legal sets among the cards in the collection.
+     */
+    long count() {
+        return count;
+    }
+
+    /**
+     * @return - true iff there is at least one legal set among the cards in the collection.
+     */
+    boolean hasSets() {
+        if (setSize < 3) // the completing card is not unique, so the sets are not counted
+            return !env.util.findSets(cards, 1).isEmpty();
+        return count > 0;
+    }
+
+    /**
+     * Counts the legal sets a card (that is not in the collection) would form with the cards in the collection.
+     */
+    private long countSetsWith(int card) {
+        int k = setSize - 2;
+        int size = cards.size();
+        if (k < 1 || size < k + 1) return 0;
+
+        counted = 0;
+        chosen[0] = card;
+        Combinations.forEach(combination, 0, size, positions -> {
+            int max = -1;
+            for (int i = 0; i < k; ++i) {
+                chosen[i + 1] = cards.get(positions[i]);
+                max = Math.max(max, chosen[i + 1]);
+            }
+
+            // each set is counted once: when its completing card has the largest id
+            int last = env.util.completeSet(chosen);
+            if (last > max && last != card && cards.contains(last)) ++counted;
+            return true;
+        });
+        return counted;
+    }
+}
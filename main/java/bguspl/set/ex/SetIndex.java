@@ -0,0 +1,189 @@
+package bguspl.set.ex;
+
+import bguspl.set.Combinations;
+import bguspl.set.Env;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * This class keeps track of all the legal sets among the cards on the table.
+ * It is updated by the table whenever a card is placed or removed, so queries never rescan the table.
+ *
+ * @inv count == the number of legal sets among the cards in slotToCard
+ */
+class SetIndex {
+
+    /**
+     * The game environment object.
+     */
+    private final Env env;
+
+    /**
+     * The table's mappings (shared with the table, see Table).
+     */
+    private final int[] slotToCard;
+    private final int[] cardToSlot;
+
+    /**
+     * The number of cards in a legal set.
+     */
+    private final int setSize;
+
+    /**
+     * The legal sets each slot takes part in (each set is an array of slots, shared by all of its slots' lists).
+     */
+    private final List<List<int[]>> setsBySlot;
+
+    /**
+     * The number of legal sets on the table.
+     */
+    private int count;
+
+    /**
+     * Buffers reused when looking for the sets of a newly placed card.
+     */
+    private final int[] occupied;
+    private final int[] cards;
+    private final int[] combination;
+
+    SetIndex(Env env, int[] slotToCard, int[] cardToSlot) {
+        this.env = env;
+        this.slotToCard = slotToCard;
+        this.cardToSlot = cardToSlot;
+        setSize = env.config.featureSize;
+        setsBySlot = new ArrayList<>(slotToCard.length);
+        for (int i = 0; i < slotToCard.length; ++i)
+            setsBySlot.add(new ArrayList<>());
+        occupied = new int[slotToCard.length];
+        cards = new int[Math.max(setSize - 1, 0)];
+        combination = new int[Math.max(setSize - 2, 0)];
+    }
+
+    /**
+     * Adds the sets completed by the card that was just placed in a slot.
+     * Runs in O(cards on table) for 3-card sets (O(n^(featureSize - 2)) in general).
+     *
+     * @param slot - the slot in which the card was placed.
+     */
+    synchronized void cardPlaced(int slot) {
+        if (setSize < 3) {
+            smallSetsPlaced(slot);
+            return;
+        }
+
+        int n = occupiedExcept(slot);
+        int k = setSize - 2;
+        if (n < k + 1) return;
+
+        cards[0] = slotToCard[slot];
+        Combinations.forEach(combination, 0, n, chosen -> {
+            for (int i = 0; i < k; ++i)
+                cards[i + 1] = slotToCard[occupied[chosen[i]]];
+
+            // each set is added once: when its completing card is in the highest slot
+            int last = env.util.completeSet(cards);
+            int lastSlot = last >= 0 ? cardToSlot[last] : Table.EMPTY;
+            if (lastSlot != Table.EMPTY && lastSlot != slot && lastSlot > occupied[chosen[k - 1]]) {
+                int[] set = new int[setSize];
+                set[0] = slot;
+                for (int i = 0; i < k; ++i)
+                    set[i + 1] = occupied[chosen[i]];
+                set[setSize - 1] = lastSlot;
+                add(set);
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Fills the occupied buffer with the slots that hold a card, other than a given slot.
+     *
+     * @param slot - the slot to leave out.
+     * @return - the number of slots in the buffer.
+     */
+    private int occupiedExcept(int slot) {
+        int n = 0;
+        for (int i = 0; i < slotToCard.length; ++i)
+            if (i != slot && slotToCard[i] != Table.EMPTY)
+                occupied[n++] = i;
+        return n;
+    }
+
+    /**
+     * Adds the sets of fewer than 3 cards with the card that was just placed in a slot. The completing card of such a
+     * set is not unique, so each candidate set is tested directly: O(cards on table).
+     *
+     * @param slot - the slot in which the card was placed.
+     */
+    private void smallSetsPlaced(int slot) {
+        if (setSize == 1) {
+            if (env.util.testSet(new int[]{slotToCard[slot]})) add(new int[]{slot});
+            return;
+        }
+        for (int other = 0; other < slotToCard.length; ++other)
+            if (other != slot && slotToCard[other] != Table.EMPTY
+                    && env.util.testSet(new int[]{slotToCard[slot], slotToCard[other]}))
+                add(new int[]{slot, other});
+    }
+
+    /**
+     * Adds a legal set (the slot it is added from first).
+     */
+    private void add(int[] set) {
+        for (int s : set)
+            setsBySlot.get(s).add(set);
+        ++count;
+    }
+
+    /**
+     * Drops all the sets of the card that is about to be removed from a slot.
+     *
+     * @param slot - the slot from which the card is removed.
+     */
+    synchronized void cardRemoved(int slot) {
+        for (int[] set : setsBySlot.get(slot)) {
+            for (int s : set)
+                if (s != slot) setsBySlot.get(s).remove(set);
+            --count;
+        }
+        setsBySlot.get(slot).clear();
+    }
+
+    /**
+     * @return - the number of legal sets on the table.
+     */
+    synchronized int count() {
+        return count;
+    }
+
+    /**
+     * @return - the slots of every legal set on the table (the arrays are shared and must not be modified).
+     */
+    synchronized List<int[]> slotSets() {
+        List<int[]> sets = new ArrayList<>(count);
+        for (int slot = 0; slot < setsBySlot.size(); ++slot)
+            for (int[] set : setsBySlot.get(slot))
+                if (set[0] == slot) sets.add(set); // set[0] is the slot the set was added from
+        return sets;
+    }
+
+    /**
+     * @param slot - the slot to look for.
+     * @return - the card ids of every legal set on the table that contains the card in the slot.
+     */
+    synchronized List<int[]> setsContaining(int slot) {
+        List<int[]> sets = new LinkedList<>();
+        for (int[] set : setsBySlot.get(slot))
+            sets.add(toCards(set));
+        return sets;
+    }
+
+    private int[] toCards(int[] set) {
+        int[] cards = new int[set.length];
+        for (int i = 0; i < set.length; ++i)
+            cards[i] = slotToCard[set[i]];
+        return cards;
+    }
+}
@@ -0,0 +1,71 @@
+package bguspl.set.ex;
+
+import bguspl.set.Env;
+
+import java.util.Random;
+
+/**
+ * A computer player that looks for a legal set on the table (in the table's shared solution) and claims it after a
+ * normally distributed reaction time. With a configured probability it makes a mistake and swaps one of the cards
+ * for another card on the table.
+ */
+class SetSeekingStrategy implements BotStrategy {
+
+    /**
+     * The game environment object.
+     */
+    private Env env;
+
+    @Override
+    public String name() {
+        return "seeking";
+    }
+
+    @Override
+    public void init(Env env, int player) {
+        this.env = env;
+    }
+
+    @Override
+    public int[] decide(TableView table, int[] tokens, Random random, DecisionBudget budget) {
+        TableSolution solution = table.solution();
+        if (solution.size() == 0) return new int[0]; // no set to claim, look again later
+        int[] target = solution.slots(random.nextInt(solution.size()));
+        if (random.nextDouble() < env.config.computerErrorRate) makeMistake(target, solution.snapshot(), random);
+
+        // remove the tokens that are not on the target, then place the missing ones
+        int[] presses = new int[tokens.length + target.length];
+        int n = 0;
+        for (int slot : tokens)
+            if (indexOf(target, slot) < 0) presses[n++] = slot;
+        for (int slot : target)
+            if (indexOf(tokens, slot) < 0) presses[n++] = slot;
+        int[] result = new int[n];
+        System.arraycopy(presses, 0, result, 0, n);
+        return result;
+    }
+
+    @Override
+    public long reactionMillis(Random random) {
+        double millis = env.config.computerReactionMillis
+                + random.nextGaussian() * env.config.computerReactionDeviationMillis;
+        return Math.max(0, Math.round(millis));
+    }
+
+    /**
+     * Replaces one of the target slots with a random other slot that has a card.
+     */
+    private static void makeMistake(int[] target, TableSnapshot snapshot, Random random) {
+        int[] others = new int[snapshot.size()];
+        int n = 0;
+        for (int slot = 0; slot < snapshot.size(); ++slot)
+            if (snapshot.card(slot) != Table.EMPTY && indexOf(target, slot) < 0) others[n++] = slot;
+        if (n > 0) target[random.nextInt(target.length)] = others[random.nextInt(n)];
+    }
+
+    private static int indexOf(int[] slots, int slot) {
+        for (int i = 0; i < slots.length; ++i)
+            if (slots[i] == slot) return i;
+        return -1;
+    }
+}
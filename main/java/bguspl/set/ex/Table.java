@@ -1,54 +1,105 @@
 package bguspl.set.ex;
 
+import bguspl.set.CardStore;
 import bguspl.set.Env;
 
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Objects;
 import java.util.Queue;
 import java.util.concurrent.BlockingDeque;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.locks.StampedLock;
 import java.util.stream.Collectors;
 
 /**
  * This class contains the data that is visible to the player.
  *
+ * The dealer changes the mappings under a write lock; players read them optimistically (seqlock style) and retry
+ * only if a change overlapped the read, so players never block each other and only wait on the dealer.
+ *
  * @inv slotToCard[x] == y iff cardToSlot[y] == x
  */
 public class Table {
 
+    /**
+     * Marks an empty slot in slotToCard and a card that is not on the table in cardToSlot.
+     */
+    public static final int EMPTY = -1;
+
     /**
      * The game environment object.
      */
     private final Env env;
 
     /**
-     * Mapping between a slot and the card placed in it (null if none).
+     * Mapping between a slot and the card placed in it (EMPTY if none).
+     */
+    protected final int[] slotToCard; // card per slot (if any)
+
+    /**
+     * Mapping between a card and the slot it is in (EMPTY if none).
+     */
+    protected final int[] cardToSlot; // slot per card (if any)
+
+
+    /**
+     * The claims waiting for the dealer to check them.
+     */
+    protected final BlockingDeque<Claim> sets = new LinkedBlockingDeque<>();
+
+    /**
+     * Incremented whenever a card is placed or removed (written by the dealer thread only).
+     */
+    private volatile long version;
+
+    /**
+     * The table version at which each slot last changed (a slot changed after version v iff its entry is > v).
+     */
+    private final long[] slotVersions;
+
+    /**
+     * The number of cards on the table and the empty slots (a store of slot ids), kept up to date by placeCards and
+     * removeCards so neither needs a scan of the table.
      */
-    protected final Integer[] slotToCard; // card per slot (if any)
+    private volatile int cardCount;
+    private final CardStore emptySlots;
 
     /**
-     * Mapping between a card and the slot it is in (null if none).
+     * The legal sets on the table, published once per change (read without locks, see solution).
      */
-    protected final Integer[] cardToSlot; // slot per card (if any)
+    private volatile TableSolution solution;
 
+    /**
+     * Guards the mappings: written by placeCard and removeCard, read optimistically by snapshot.
+     */
+    private final StampedLock lock = new StampedLock();
 
-    protected BlockingQueue<int[]> sets = new LinkedBlockingDeque<>();
+    /**
+     * The legal sets among the cards on the table (kept up to date by placeCard and removeCard).
+     */
+    private final SetIndex setIndex;
 
     /**
      * Constructor for testing.
      *
      * @param env        - the game environment objects.
-     * @param slotToCard - mapping between a slot and the card placed in it (null if none).
-     * @param cardToSlot - mapping between a card and the slot it is in (null if none).
+     * @param slotToCard - mapping between a slot and the card placed in it (EMPTY if none).
+     * @param cardToSlot - mapping between a card and the slot it is in (EMPTY if none).
      */
-    public Table(Env env, Integer[] slotToCard, Integer[] cardToSlot) {
+    public Table(Env env, int[] slotToCard, int[] cardToSlot) {
 
         this.env = env;
         this.slotToCard = slotToCard;
         this.cardToSlot = cardToSlot;
+        this.slotVersions = new long[slotToCard.length];
+        this.emptySlots = new CardStore(slotToCard.length);
+        for (int slot = 0; slot < slotToCard.length; ++slot)
+            if (slotToCard[slot] == EMPTY) emptySlots.add(slot);
+        this.cardCount = slotToCard.length - emptySlots.size();
+        this.setIndex = new SetIndex(env, slotToCard, cardToSlot);
+        indexCards();
+        this.solution = new TableSolution(copy(), setIndex.slotSets());
     }
 
     /**
@@ -58,15 +109,39 @@ public class Table {
      */
     public Table(Env env) {
 
-        this(env, new Integer[env.config.tableSize], new Integer[env.config.deckSize]);
+        this(env, emptyMapping(env.config.tableSize), emptyMapping(env.config.deckSize));
+    }
+
+    /**
+     * Adds the sets among the cards already in the mappings to the set index, as if the cards were placed one by one
+     * (the index finds each set when its last card is placed).
+     */
+    private void indexCards() {
+        int[] cards = slotToCard.clone();
+        for (int slot = 0; slot < cards.length; ++slot)
+            if (cards[slot] != EMPTY) {
+                cardToSlot[cards[slot]] = EMPTY;
+                slotToCard[slot] = EMPTY;
+            }
+        for (int slot = 0; slot < cards.length; ++slot)
+            if (cards[slot] != EMPTY) {
+                cardToSlot[cards[slot]] = slot;
+                slotToCard[slot] = cards[slot];
+                setIndex.cardPlaced(slot);
+            }
+    }
+
+    private static int[] emptyMapping(int size) {
+        int[] mapping = new int[size];
+        Arrays.fill(mapping, EMPTY);
+        return mapping;
     }
 
     /**
      * This method prints all possible legal sets of cards that are currently on the table.
      */
     public void hints() {
-        List<Integer> deck = Arrays.stream(slotToCard).filter(Objects::nonNull).collect(Collectors.toList());
-        env.util.findSets(deck, Integer.MAX_VALUE).forEach(set -> {
+        legalSets().forEach(set -> {
             StringBuilder sb = new StringBuilder().append("Hint: Set found: ");
             List<Integer> slots = Arrays.stream(set).mapToObj(card -> cardToSlot[card]).sorted().collect(Collectors.toList());
             int[][] features = env.util.cardsToFeatures(set);
@@ -74,17 +149,114 @@ public class Table {
         });
     }
 
+    /**
+     * @return - true iff there is at least one legal set among the cards on the table.
+     */
+    public boolean hasSets() {
+        return setIndex.count() > 0;
+    }
+
+    /**
+     * @return - the number of legal sets among the cards on the table.
+     */
+    public int countSets() {
+        return setIndex.count();
+    }
+
+    /**
+     * @return - the card ids of every legal set among the cards on the table.
+     */
+    public List<int[]> legalSets() {
+        TableSolution solution = this.solution;
+        List<int[]> sets = new LinkedList<>();
+        for (int i = 0; i < solution.size(); ++i)
+            sets.add(solution.cards(i));
+        return sets;
+    }
+
+    /**
+     * @return - the legal sets on the table as of the last card placed or removed, with the table they were found in.
+     */
+    public TableSolution solution() {
+        return solution;
+    }
+
+    /**
+     * @param slot - the slot to look for.
+     * @return - the card ids of every legal set on the table that contains the card in the slot.
+     */
+    public List<int[]> setsContaining(int slot) {
+        long stamp = lock.readLock();
+        try {
+            return setIndex.setsContaining(slot);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return - the current table version: if it did not change, no card was placed or removed in the meantime.
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Takes an immutable, consistent view of the table. The read is optimistic: it takes no lock unless the dealer
+     * changed the table while reading, in which case it is repeated under a read lock.
+     *
+     * @return - a snapshot of the cards on the table and of the slot versions.
+     */
+    public TableSnapshot snapshot() {
+        long stamp = lock.tryOptimisticRead();
+        TableSnapshot snapshot = copy();
+        if (lock.validate(stamp)) return snapshot;
+
+        stamp = lock.readLock();
+        try {
+            return copy();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private TableSnapshot copy() {
+        return new TableSnapshot(version, slotToCard.clone(), slotVersions.clone());
+    }
+
+    /**
+     * Checks whether a claim made against a snapshot is stale (called by the dealer, which makes all table changes).
+     *
+     * @param slots   - the claimed slots.
+     * @param version - the version of the snapshot the claim was made against.
+     * @return - true iff a card was placed in or removed from one of the slots since the snapshot was taken.
+     */
+    public boolean isStale(int[] slots, long version) {
+        if (version == this.version) return false;
+        for (int slot : slots)
+            if (slotVersions[slot] > version) return true;
+        return false;
+    }
+
     /**
      * Count the number of cards currently on the table.
      *
      * @return - the number of cards on the table.
      */
     public int countCards() {
-        int cards = 0;
-        for (Integer card : slotToCard)
-            if (card != null)
-                ++cards;
-        return cards;
+        return cardCount;
+    }
+
+    /**
+     * @return - the empty slots (in no particular order).
+     */
+    public int[] emptySlots() {
+        long stamp = lock.readLock();
+        try {
+            return emptySlots.toArray();
+        } finally {
+            lock.unlockRead(stamp);
+        }
     }
 
     /**
@@ -95,15 +267,7 @@ public class Table {
      * @post - the card placed is on the table, in the assigned slot.
      */
     public void placeCard(int card, int slot) {
-        try {
-            Thread.sleep(env.config.tableDelayMillis);
-        } catch (InterruptedException ignored) {}
-
-        cardToSlot[card] = slot;
-        slotToCard[slot] = card;
-
-        // TODO implement
-        env.ui.placeCard(card, slot);
+        placeCards(new int[]{card}, new int[]{slot});
     }
 
     /**
@@ -111,15 +275,73 @@ public class Table {
      * @param slot - the slot from which to remove the card.
      */
     public void removeCard(int slot) {
+        removeCards(new int[]{slot});
+    }
+
+    /**
+     * Places several cards on the table as one change: the cards appear together (a single version) and right away.
+     * Pacing the display of the cards is up to the user interface (see Config.tableDelayMillis).
+     *
+     * @param cards - the card ids to place.
+     * @param slots - the slot in which to place each card (empty slots).
+     *
+     * @post - the cards placed are on the table, in the assigned slots.
+     */
+    public void placeCards(int[] cards, int[] slots) {
+        if (slots.length == 0) return;
+        long stamp = lock.writeLock();
         try {
-            Thread.sleep(env.config.tableDelayMillis);
-        } catch (InterruptedException ignored) {}
+            long changed = ++version;
+            for (int i = 0; i < slots.length; ++i) {
+                if (slotToCard[slots[i]] != EMPTY) clear(slots[i]); // replaced
+                emptySlots.remove(slots[i]);
+                ++cardCount;
+                cardToSlot[cards[i]] = slots[i];
+                slotToCard[slots[i]] = cards[i];
+                setIndex.cardPlaced(slots[i]);
+                slotVersions[slots[i]] = changed;
+            }
+            solution = new TableSolution(copy(), setIndex.slotSets());
+        } finally {
+            lock.unlockWrite(stamp);
+        }
 
-        // TODO implement
-        int cardId = slotToCard[slot];
-        slotToCard[slot] = null;
-        cardToSlot[cardId] = null;
-        env.ui.removeCard(slot);
+        for (int i = 0; i < slots.length; ++i)
+            env.ui.placeCard(cards[i], slots[i]);
+    }
+
+    /**
+     * Removes the cards from several slots as one change (see placeCards).
+     *
+     * @param slots - the slots from which to remove the cards.
+     */
+    public void removeCards(int[] slots) {
+        if (slots.length == 0) return;
+        long stamp = lock.writeLock();
+        try {
+            long changed = ++version;
+            for (int slot : slots) {
+                if (slotToCard[slot] != EMPTY) clear(slot);
+                slotVersions[slot] = changed;
+            }
+            solution = new TableSolution(copy(), setIndex.slotSets());
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+
+        for (int slot : slots)
+            env.ui.removeCard(slot);
+    }
+
+    /**
+     * Removes the card from a slot (called under the write lock).
+     */
+    private void clear(int slot) {
+        setIndex.cardRemoved(slot);
+        cardToSlot[slotToCard[slot]] = EMPTY;
+        slotToCard[slot] = EMPTY;
+        emptySlots.add(slot);
+        --cardCount;
     }
 
     /**
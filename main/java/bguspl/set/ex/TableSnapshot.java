@@ -0,0 +1,60 @@
+package bguspl.set.ex;
+
+/**
+ * An immutable, consistent view of the cards on the table, taken by Table.snapshot.
+ *
+ * @inv slotVersion(x) <= version() for every slot x
+ */
+public final class TableSnapshot {
+
+    /**
+     * The table version the snapshot was taken at.
+     */
+    private final long version;
+
+    /**
+     * The card in each slot (Table.EMPTY if none).
+     */
+    private final int[] slotToCard;
+
+    /**
+     * The table version at which each slot last changed.
+     */
+    private final long[] slotVersions;
+
+    TableSnapshot(long version, int[] slotToCard, long[] slotVersions) {
+        this.version = version;
+        this.slotToCard = slotToCard;
+        this.slotVersions = slotVersions;
+    }
+
+    /**
+     * @return - the table version the snapshot was taken at (see Table.version).
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * @param slot - the slot to look for.
+     * @return - the card in the slot (Table.EMPTY if none).
+     */
+    public int card(int slot) {
+        return slotToCard[slot];
+    }
+
+    /**
+     * @param slot - the slot to look for.
+     * @return - the table version at which a card was last placed in or removed from the slot.
+     */
+    public long slotVersion(int slot) {
+        return slotVersions[slot];
+    }
+
+    /**
+     * @return - the number of slots on the table.
+     */
+    public int size() {
+        return slotToCard.length;
+    }
+}
@@ -0,0 +1,60 @@
+package bguspl.set.ex;
+
+import java.util.List;
+
+/**
+ * The legal sets on the table as of one table version, together with the snapshot they were found in.
+ * The table publishes a new solution once per change (see Table.solution), so any number of computer players can
+ * read it without locks or solving the table again.
+ */
+public final class TableSolution {
+
+    /**
+     * The table the sets were found in.
+     */
+    private final TableSnapshot snapshot;
+
+    /**
+     * The slots of each legal set (never modified).
+     */
+    private final List<int[]> sets;
+
+    TableSolution(TableSnapshot snapshot, List<int[]> sets) {
+        this.snapshot = snapshot;
+        this.sets = sets;
+    }
+
+    /**
+     * @return - the table the sets were found in.
+     */
+    public TableSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * @return - the number of legal sets.
+     */
+    public int size() {
+        return sets.size();
+    }
+
+    /**
+     * @param i - the index of a legal set (0 to size - 1).
+     * @return - the slots of the set.
+     */
+    public int[] slots(int i) {
+        return sets.get(i).clone();
+    }
+
+    /**
+     * @param i - the index of a legal set (0 to size - 1).
+     * @return - the card ids of the set.
+     */
+    public int[] cards(int i) {
+        int[] slots = sets.get(i);
+        int[] cards = new int[slots.length];
+        for (int j = 0; j < slots.length; ++j)
+            cards[j] = snapshot.card(slots[j]);
+        return cards;
+    }
+}
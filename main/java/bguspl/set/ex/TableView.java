@@ -0,0 +1,34 @@
+package bguspl.set.ex;
+
+/**
+ * A read-only view of the table for computer player strategies (see BotStrategy).
+ */
+public final class TableView {
+
+    private final Table table;
+
+    TableView(Table table) {
+        this.table = table;
+    }
+
+    /**
+     * @return - a consistent snapshot of the cards on the table (see Table.snapshot).
+     */
+    public TableSnapshot snapshot() {
+        return table.snapshot();
+    }
+
+    /**
+     * @return - the legal sets on the table as of its last change (see Table.solution).
+     */
+    public TableSolution solution() {
+        return table.solution();
+    }
+
+    /**
+     * @return - the current table version (see Table.version).
+     */
+    public long version() {
+        return table.version();
+    }
+}
@@ -0,0 +1,120 @@
+package bguspl.set.ex;
+
+import java.util.Arrays;
+
+/**
+ * The slots on which a player placed its tokens: a fixed-capacity buffer of primitives with O(1) contains, add and
+ * remove by slot. It is written only by the player thread, which reads it without locking. Other threads (the AI) may
+ * only call size, isFull and toArray: after each change the player thread publishes an immutable copy of the slots
+ * through a volatile field, so readers never lock and never see a change half made.
+ *
+ * @inv position[slots[i]] == i for every 0 <= i < size
+ * @inv published is a copy of the first size entries of slots
+ */
+class TokenBuffer {
+
+    private static final int ABSENT = -1;
+
+    /**
+     * The slots with a token (only the first size entries are used).
+     */
+    private final int[] slots;
+
+    /**
+     * The position of each table slot in the slots array (ABSENT if it has no token).
+     */
+    private final int[] position;
+
+    private int size;
+
+    /**
+     * The slots with a token as of the last change (never modified, replaced by the player thread on every change).
+     */
+    private volatile int[] published = new int[0];
+
+    /**
+     * @param capacity  - the maximal number of tokens.
+     * @param tableSize - the number of slots on the table.
+     */
+    TokenBuffer(int capacity, int tableSize) {
+        slots = new int[capacity];
+        position = new int[tableSize];
+        Arrays.fill(position, ABSENT);
+    }
+
+    boolean contains(int slot) {
+        return position[slot] != ABSENT;
+    }
+
+    /**
+     * @param slot - the slot to place a token on.
+     * @return - true iff the token was added (false if the slot already has one or the buffer is full).
+     */
+    boolean add(int slot) {
+        if (contains(slot) || size == slots.length) return false;
+        position[slot] = size;
+        slots[size] = slot;
+        ++size;
+        publish();
+        return true;
+    }
+
+    /**
+     * @param slot - the slot to remove the token from.
+     * @return - true iff the slot had a token.
+     */
+    boolean remove(int slot) {
+        int i = position[slot];
+        if (i == ABSENT) return false;
+        int last = slots[size - 1];
+        slots[i] = last;
+        position[last] = i;
+        position[slot] = ABSENT;
+        --size;
+        publish();
+        return true;
+    }
+
+    /**
+     * @param index - a position in the buffer (0 to size - 1).
+     * @return - the slot in the position.
+     */
+    int get(int index) {
+        return slots[index];
+    }
+
+    /**
+     * @return - a copy of the slots with a token (any thread).
+     */
+    int[] toArray() {
+        return published.clone();
+    }
+
+    /**
+     * @return - the number of tokens (any thread).
+     */
+    int size() {
+        return published.length;
+    }
+
+    /**
+     * @return - true iff all the tokens are placed (any thread).
+     */
+    boolean isFull() {
+        return published.length == slots.length;
+    }
+
+    void clear() {
+        for (int i = 0; i < size; ++i)
+            position[slots[i]] = ABSENT;
+        size = 0;
+        publish();
+    }
+
+    /**
+     * Makes the current slots visible to the other threads (player thread only).
+     */
+    private void publish() {
+        published = Arrays.copyOf(slots, size);
+    }
+}
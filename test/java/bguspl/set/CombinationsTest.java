@@ -0,0 +1,48 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CombinationsTest {
+
+    @Test
+    void forEach_LexicographicOrder() {
+        List<int[]> visited = new ArrayList<>();
+        assertTrue(Combinations.forEach(new int[2], 1, 4, combination -> visited.add(combination.clone())));
+
+        assertEquals(3, visited.size());
+        assertArrayEquals(new int[]{1, 2}, visited.get(0));
+        assertArrayEquals(new int[]{1, 3}, visited.get(1));
+        assertArrayEquals(new int[]{2, 3}, visited.get(2));
+    }
+
+    @Test
+    void forEach_VisitorStops() {
+        int[] visits = {0};
+        assertFalse(Combinations.forEach(new int[3], 0, 6, combination -> ++visits[0] < 5));
+        assertEquals(5, visits[0]);
+    }
+
+    @Test
+    void forEach_TooFewPositions() {
+        assertTrue(Combinations.forEach(new int[3], 0, 2, combination -> {
+            throw new AssertionError("no combination of 3 out of 2");
+        }));
+    }
+
+    @Test
+    void next_CountsAllCombinations() {
+        int[] combination = new int[3];
+        int count = 0;
+        if (Combinations.first(combination, 0, 7))
+            do ++count; while (Combinations.next(combination, 7));
+        assertEquals(35, count);
+    }
+}
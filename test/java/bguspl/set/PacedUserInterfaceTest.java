@@ -0,0 +1,137 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PacedUserInterfaceTest {
+
+    private final VirtualClock clock = new VirtualClock();
+
+    /**
+     * The updates that reached the user interface, with their (virtual) time in milliseconds.
+     */
+    private final List<String> shown = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        clock.threadStarting(); // time stands still until the test lets it pass (see showAll)
+        clock.threadStarted();
+    }
+
+    private PacedUserInterface paced(String tableDelaySeconds) {
+        Properties properties = new Properties();
+        properties.put("TableDelaySeconds", tableDelaySeconds);
+        return new PacedUserInterface(new Config(new UtilImplTest.MockLogger(), properties), new RecordingUserInterface(),
+                clock);
+    }
+
+    /**
+     * Lets (virtual) time pass until every animation scheduled was shown.
+     */
+    private void showAll() {
+        clock.threadEnded();
+    }
+
+    @Test
+    void tokenUpdates_AfterPendingCardUpdates() {
+        PacedUserInterface ui = paced("0.1");
+        ui.removeCard(3);
+        ui.removeTokens(3);
+        ui.placeCard(7, 3);
+        ui.placeToken(0, 3);
+        assertEquals(0, shown.size());
+
+        showAll();
+        assertEquals(Arrays.asList("removeCard 3 at 100", "removeTokens 3 at 100", "placeCard 7 3 at 200",
+                "placeToken 0 3 at 200"), shown);
+    }
+
+    @Test
+    void placeCard_PacedByTableDelay() {
+        PacedUserInterface ui = paced("0.1");
+        ui.placeCard(1, 0);
+        ui.placeCard(2, 1);
+        ui.setScore(0, 1); // not a card update: right away
+        ui.placeCard(3, 2);
+
+        showAll();
+        assertEquals(Arrays.asList("setScore 0 1 at 0", "placeCard 1 0 at 100", "placeCard 2 1 at 200",
+                "placeCard 3 2 at 300"), shown);
+
+        ui.removeToken(1, 2); // no animation is pending
+        assertEquals("removeToken 1 2 at 300", shown.get(shown.size() - 1));
+    }
+
+    @Test
+    void placeCard_NoDelay() {
+        PacedUserInterface ui = paced("0");
+        ui.placeCard(1, 0);
+        ui.removeTokens();
+        assertEquals(Arrays.asList("placeCard 1 0 at 0", "removeTokens at 0"), shown);
+        showAll();
+    }
+
+    private class RecordingUserInterface implements UserInterface {
+
+        private void show(String update) {
+            shown.add(update + " at " + clock.millis());
+        }
+
+        @Override
+        public void dispose() {}
+
+        @Override
+        public void placeCard(int card, int slot) {
+            show("placeCard " + card + " " + slot);
+        }
+
+        @Override
+        public void removeCard(int slot) {
+            show("removeCard " + slot);
+        }
+
+        @Override
+        public void setCountdown(long millies, boolean warn) {}
+
+        @Override
+        public void setElapsed(long millies) {}
+
+        @Override
+        public void setScore(int player, int score) {
+            show("setScore " + player + " " + score);
+        }
+
+        @Override
+        public void setFreeze(int player, long millies) {}
+
+        @Override
+        public void placeToken(int player, int slot) {
+            show("placeToken " + player + " " + slot);
+        }
+
+        @Override
+        public void removeTokens() {
+            show("removeTokens");
+        }
+
+        @Override
+        public void removeTokens(int slot) {
+            show("removeTokens " + slot);
+        }
+
+        @Override
+        public void removeToken(int player, int slot) {
+            show("removeToken " + player + " " + slot);
+        }
+
+        @Override
+        public void announceWinner(int[] players) {}
+    }
+}
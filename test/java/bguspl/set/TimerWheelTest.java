@@ -0,0 +1,105 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimerWheelTest {
+
+    private final VirtualClock clock = new VirtualClock();
+    private final List<LogRecord> logged = new CopyOnWriteArrayList<>();
+    private TimerWheel wheel;
+
+    @BeforeEach
+    void setUp() {
+        clock.threadStarting(); // time stands still while the test schedules its tasks (see await)
+        clock.threadStarted();
+        Logger logger = Logger.getAnonymousLogger();
+        logger.setUseParentHandlers(false);
+        logger.addHandler(new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                logged.add(record);
+            }
+
+            @Override
+            public void flush() {}
+
+            @Override
+            public void close() {}
+        });
+        wheel = new TimerWheel("test-wheel", clock, logger);
+    }
+
+    /**
+     * Lets (virtual) time pass until a task is done.
+     */
+    private void await(CountDownLatch done) throws InterruptedException {
+        clock.threadEnded();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * @return - the time the task ran at (in virtual milliseconds).
+     */
+    private long runAfter(long delayMillis) throws InterruptedException {
+        AtomicLong ran = new AtomicLong(-1);
+        CountDownLatch done = new CountDownLatch(1);
+        wheel.schedule(() -> {
+            ran.set(clock.millis());
+            done.countDown();
+        }, delayMillis);
+        await(done);
+        return ran.get();
+    }
+
+    @Test
+    void schedule_RunsAfterDelay() throws InterruptedException {
+        long ran = runAfter(50);
+        assertTrue(ran >= 50);
+        assertTrue(ran <= 50 + TimerWheel.TICK_MILLIS);
+    }
+
+    @Test
+    void schedule_LongerThanOneTurn() throws InterruptedException {
+        long delay = TimerWheel.WHEEL_SIZE * TimerWheel.TICK_MILLIS + 30;
+        long ran = runAfter(delay);
+        assertTrue(ran >= delay);
+        assertTrue(ran <= delay + TimerWheel.TICK_MILLIS);
+    }
+
+    @Test
+    void cancel_TaskDoesNotRun() throws InterruptedException {
+        AtomicBoolean ran = new AtomicBoolean();
+        CountDownLatch after = new CountDownLatch(1);
+        wheel.schedule(() -> ran.set(true), 20).cancel();
+        wheel.schedule(after::countDown, 60);
+        await(after);
+        assertFalse(ran.get());
+    }
+
+    @Test
+    void schedule_FailingTaskDoesNotStopTheWheel() throws InterruptedException {
+        CountDownLatch after = new CountDownLatch(1);
+        wheel.schedule(() -> {
+            throw new IllegalStateException("task failed on purpose");
+        }, 20);
+        wheel.schedule(after::countDown, 40);
+        await(after);
+        assertEquals(1, logged.size());
+        assertTrue(logged.get(0).getMessage().contains("task failed on purpose"));
+    }
+}
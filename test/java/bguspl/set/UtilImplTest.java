@@ -0,0 +1,178 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UtilImplTest {
+
+    private static UtilImpl createUtil(int featureSize, int featureCount) {
+        Properties properties = new Properties();
+        properties.put("FeatureSize", Integer.toString(featureSize));
+        properties.put("FeatureCount", Integer.toString(featureCount));
+        return new UtilImpl(new Config(new MockLogger(), properties));
+    }
+
+    private static UtilImpl createParallelUtil(int featureSize, int featureCount) {
+        Properties properties = new Properties();
+        properties.put("FeatureSize", Integer.toString(featureSize));
+        properties.put("FeatureCount", Integer.toString(featureCount));
+        properties.put("ParallelFindSets", "True");
+        properties.put("ParallelFindSetsThreshold", "0");
+        return new UtilImpl(new Config(new MockLogger(), properties));
+    }
+
+    private static void assertTestSetMatchesReference(UtilImpl util, int deckSize) {
+        for (int a = 0; a < deckSize; ++a)
+            for (int b = 0; b < deckSize; ++b)
+                for (int c = 0; c < deckSize; ++c) {
+                    int[] cards = {a, b, c};
+                    assertEquals(util.testSetReference(cards), util.testSet(cards), "cards " + a + ", " + b + ", " + c);
+                }
+    }
+
+    private static List<String> normalize(List<int[]> sets) {
+        return sets.stream().map(Arrays::toString).sorted().collect(Collectors.toList());
+    }
+
+    private static List<Integer> fullDeck(int deckSize) {
+        return IntStream.range(0, deckSize).boxed().collect(Collectors.toList());
+    }
+
+    @Test
+    void cardToFeatures_DefaultDeck() {
+        UtilImpl util = createUtil(3, 4);
+        assertArrayEquals(new int[]{0, 0, 0, 0}, util.cardToFeatures(0));
+        assertArrayEquals(new int[]{0, 0, 1, 2}, util.cardToFeatures(5));
+        assertArrayEquals(new int[]{2, 2, 2, 2}, util.cardToFeatures(80));
+    }
+
+    @Test
+    void testSet_DefaultDeckMatchesReference() {
+        assertTestSetMatchesReference(createUtil(3, 4), 81);
+    }
+
+    @Test
+    void testSet_VariantDecksMatchReference() {
+        assertTestSetMatchesReference(createUtil(3, 2), 9);
+        assertTestSetMatchesReference(createUtil(4, 2), 16);
+        assertTestSetMatchesReference(createUtil(2, 3), 8);
+    }
+
+    @Test
+    void testSet_FourCardSets() {
+        UtilImpl util = createUtil(4, 2);
+        assertTrue(util.testSet(new int[]{0, 5, 10, 15}));
+        assertFalse(util.testSet(new int[]{0, 5, 10, 14}));
+        assertEquals(util.testSetReference(new int[]{0, 1, 2, 3}), util.testSet(new int[]{0, 1, 2, 3}));
+    }
+
+    @Test
+    void testSet_SingleCard() {
+        UtilImpl util = createUtil(3, 4);
+        assertEquals(util.testSetReference(new int[]{7}), util.testSet(new int[]{7}));
+    }
+
+    @Test
+    void findSets_FullDeckMatchesReference() {
+        UtilImpl util = createUtil(3, 4);
+        List<Integer> deck = fullDeck(81);
+        List<int[]> sets = util.findSets(deck, Integer.MAX_VALUE);
+        assertEquals(81 * 80 / 6, sets.size());
+        assertEquals(normalize(util.findSetsReference(deck, Integer.MAX_VALUE)), normalize(sets));
+    }
+
+    @Test
+    void findSets_RandomDecksMatchReference() {
+        UtilImpl util = createUtil(3, 4);
+        Random random = new Random(42);
+        for (int round = 0; round < 50; ++round) {
+            List<Integer> deck = fullDeck(81);
+            Collections.shuffle(deck, random);
+            deck = new ArrayList<>(deck.subList(0, random.nextInt(20)));
+            assertEquals(normalize(util.findSetsReference(deck, Integer.MAX_VALUE)), normalize(util.findSets(deck, Integer.MAX_VALUE)));
+        }
+    }
+
+    @Test
+    void findSets_VariantDecksMatchReference() {
+        UtilImpl util = createUtil(4, 3);
+        List<Integer> deck = fullDeck(64);
+        assertEquals(normalize(util.findSetsReference(deck, Integer.MAX_VALUE)), normalize(util.findSets(deck, Integer.MAX_VALUE)));
+
+        util = createUtil(2, 3);
+        deck = fullDeck(8);
+        assertEquals(normalize(util.findSetsReference(deck, Integer.MAX_VALUE)), normalize(util.findSets(deck, Integer.MAX_VALUE)));
+    }
+
+    @Test
+    void findSets_RespectsCount() {
+        UtilImpl util = createUtil(3, 4);
+        List<int[]> sets = util.findSets(fullDeck(81), 5);
+        assertEquals(5, sets.size());
+        sets.forEach(set -> assertTrue(util.testSet(set)));
+        assertEquals(0, util.findSets(fullDeck(2), 1).size());
+    }
+
+    @Test
+    void findSets_CardStoreMatchesList() {
+        UtilImpl util = createUtil(3, 4);
+        CardStore store = CardStore.fullDeck(81);
+        List<Integer> deck = fullDeck(81);
+        for (int card = 0; card < 81; card += 3) {
+            store.remove(card);
+            deck.remove((Integer) card);
+        }
+        assertEquals(normalize(util.findSets(deck, Integer.MAX_VALUE)), normalize(util.findSets(store, Integer.MAX_VALUE)));
+    }
+
+    @Test
+    void findSets_ParallelMatchesSequential() {
+        UtilImpl sequential = createUtil(3, 5);
+        UtilImpl parallel = createParallelUtil(3, 5);
+        List<Integer> deck = fullDeck(243);
+        Collections.shuffle(deck, new Random(3));
+        for (int count : new int[]{1, 7, 500, Integer.MAX_VALUE}) {
+            List<String> expected = sequential.findSets(deck, count).stream().map(Arrays::toString).collect(Collectors.toList());
+            List<String> actual = parallel.findSets(deck, count).stream().map(Arrays::toString).collect(Collectors.toList());
+            assertEquals(expected, actual, "count " + count);
+        }
+    }
+
+    @Test
+    void streamSets_MatchesFindSets() {
+        UtilImpl util = createUtil(3, 4);
+        CardStore deck = CardStore.fullDeck(81);
+        List<String> expected = util.findSets(deck, Integer.MAX_VALUE).stream().map(Arrays::toString).collect(Collectors.toList());
+        assertEquals(expected, util.streamSets(deck).map(Arrays::toString).collect(Collectors.toList()));
+        assertEquals(expected.subList(0, 3), util.streamSets(deck).limit(3).map(Arrays::toString).collect(Collectors.toList()));
+    }
+
+    @Test
+    void streamSets_Parallel() {
+        UtilImpl util = createUtil(3, 5);
+        CardStore deck = CardStore.fullDeck(243);
+        List<String> expected = util.findSets(deck, Integer.MAX_VALUE).stream().map(Arrays::toString).collect(Collectors.toList());
+        assertEquals(expected, util.streamSets(deck).parallel().map(Arrays::toString).collect(Collectors.toList()));
+        assertTrue(util.streamSets(deck).parallel().allMatch(util::testSet));
+    }
+
+    static class MockLogger extends Logger {
+        protected MockLogger() {
+            super("", null);
+        }
+    }
+}
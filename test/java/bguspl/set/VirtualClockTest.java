@@ -0,0 +1,112 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VirtualClockTest {
+
+    private final VirtualClock clock = new VirtualClock();
+
+    /**
+     * Starts game threads of the clock (time stands still until all of them started, as when the dealer starts the
+     * players).
+     */
+    private Thread[] start(Runnable... loops) {
+        clock.threadStarting();
+        clock.threadStarted();
+        Thread[] threads = new Thread[loops.length];
+        for (int i = 0; i < loops.length; ++i) {
+            Runnable loop = loops[i];
+            clock.threadStarting();
+            threads[i] = new Thread(() -> {
+                clock.threadStarted();
+                loop.run();
+                clock.threadEnded();
+            });
+            threads[i].start();
+        }
+        clock.threadEnded();
+        return threads;
+    }
+
+    @Test
+    void sleep_TakesVirtualTimeOnly() throws InterruptedException {
+        AtomicLong shortWake = new AtomicLong(), longWake = new AtomicLong();
+        long start = System.nanoTime();
+        Thread[] sleepers = start(() -> {
+            try {
+                clock.sleep(1000);
+                shortWake.set(clock.millis());
+            } catch (InterruptedException ignored) {}
+        }, () -> {
+            try {
+                clock.sleep(TimeUnit.HOURS.toMillis(1));
+                longWake.set(clock.millis());
+            } catch (InterruptedException ignored) {}
+        });
+        for (Thread sleeper : sleepers)
+            sleeper.join(5000);
+
+        assertEquals(1000, shortWake.get());
+        assertEquals(TimeUnit.HOURS.toMillis(1), longWake.get());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+    }
+
+    @Test
+    void schedule_RunsWhenAllGameThreadsWait() throws InterruptedException {
+        AtomicLong woken = new AtomicLong(-1);
+        Thread parked = start(() -> {
+            clock.park(this);
+            woken.set(clock.millis());
+        })[0];
+        clock.schedule(() -> clock.unpark(parked), 500);
+        parked.join(5000);
+
+        assertEquals(500, woken.get());
+    }
+
+    @Test
+    void parkMillis_UnparkWakesBeforeTimeout() throws InterruptedException {
+        AtomicLong woken = new AtomicLong(-1);
+        Thread[] parked = new Thread[1];
+        Thread[] threads = start(() -> {
+            parked[0] = Thread.currentThread(); // before the waker's sleep can end
+            clock.parkMillis(this, 60000);
+            woken.set(clock.millis());
+        }, () -> {
+            try {
+                clock.sleep(200);
+            } catch (InterruptedException ignored) {}
+            clock.unpark(parked[0]);
+        });
+        for (Thread thread : threads)
+            thread.join(5000);
+
+        assertEquals(200, woken.get());
+    }
+
+    @Test
+    void time_StandsStillWhileAGameThreadRuns() throws InterruptedException {
+        clock.threadStarting(); // the test thread runs (as a game thread) until it ends below
+        clock.threadStarted();
+        Thread sleeper = start(() -> {
+            try {
+                clock.sleep(1000);
+            } catch (InterruptedException ignored) {}
+        })[0];
+        Thread.sleep(50);
+        assertEquals(0, clock.millis());
+        assertTrue(sleeper.isAlive());
+
+        clock.threadEnded();
+        sleeper.join(5000);
+        assertFalse(sleeper.isAlive());
+        assertEquals(1000, clock.millis());
+    }
+}
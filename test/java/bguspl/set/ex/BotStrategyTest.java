@@ -0,0 +1,23 @@
+package bguspl.set.ex;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BotStrategyTest {
+
+    @Test
+    void load_BuiltIn() {
+        assertTrue(BotStrategy.load(TestEnv.create("ComputerStrategy", "seeking")) instanceof SetSeekingStrategy);
+    }
+
+    @Test
+    void load_Service() {
+        assertTrue(BotStrategy.load(TestEnv.create("ComputerStrategy", "Passing")) instanceof PassingStrategy);
+    }
+
+    @Test
+    void load_UnknownIsRandom() {
+        assertTrue(BotStrategy.load(TestEnv.create("ComputerStrategy", "none")) instanceof RandomStrategy);
+    }
+}
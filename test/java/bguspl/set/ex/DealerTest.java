@@ -4,6 +4,7 @@ import bguspl.set.Config;
 import bguspl.set.Env;
 import bguspl.set.UserInterface;
 import bguspl.set.Util;
+import bguspl.set.UtilImpl;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,6 +12,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.Arrays;
 import java.util.logging.Logger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -39,7 +41,9 @@ class DealerTest {
     @BeforeEach
     void setUp() {
         // purposely do not find the configuration files (use defaults here).
-        Env env = new Env(logger, new Config(logger, ""), ui, util);
+        Config config = new Config(logger, "");
+        util = new UtilImpl(config);
+        Env env = new Env(logger, config, ui, util);
         players = new Player[2];
         for(int i = 0; i<players.length; i++){
             players[i] = new Player(env, dealer, table, i, false);
@@ -55,10 +59,8 @@ class DealerTest {
     }
 
     private void fillAllSlots() {
-        for (int i = 0; i < table.slotToCard.length; ++i) {
-            table.slotToCard[i] = i;
-            table.cardToSlot[i] = i;
-        }
+        for (int i = 0; i < table.slotToCard.length; ++i)
+            table.placeCard(i, i);
     }
 
     @Test
@@ -74,4 +76,87 @@ class DealerTest {
         dealer.removeAllCardsFromTable();
         assertEquals(expected, table.countCards());
     }
+
+    /**
+     * Replaces the dealer with one that deals a full table with a legal set on it (see GuaranteedSetDealing).
+     *
+     * @return - the slots of a legal set on the table.
+     */
+    private int[] dealTableWithSet() {
+        Env env = TestEnv.create("DealingStrategy", "guaranteed", "DeckSeed", "1");
+        table = new Table(env);
+        for (int i = 0; i < players.length; i++)
+            players[i] = new Player(env, null, table, i, false);
+        dealer = new Dealer(env, table, players);
+        dealer.placeCardsOnTable();
+        assertTrue(table.hasSets());
+        return table.solution().slots(0);
+    }
+
+    /**
+     * Makes a claim as a player's thread would (the cards are read from the table now).
+     */
+    private void claim(int player, int[] slots, long pressTime, long tableVersion) {
+        int[] cards = new int[slots.length];
+        for (int i = 0; i < slots.length; ++i)
+            cards[i] = table.slotToCard[slots[i]];
+        players[player].setChecked = 0;
+        table.sets.offer(new Claim(player, slots, cards, pressTime, tableVersion));
+    }
+
+    @Test
+    void removeCardsFromTable_EarliestPressWins() {
+        int[] set = dealTableWithSet();
+        long version = table.version();
+        claim(1, set, 200, version); // offered first, but pressed later
+        claim(0, set, 100, version);
+
+        dealer.removeCardsFromTable();
+        assertEquals(1, players[0].state);
+        assertEquals(0, players[1].state);
+        assertEquals(1, players[0].setChecked);
+        assertEquals(1, players[1].setChecked);
+        for (int slot : set)
+            assertEquals(Table.EMPTY, table.slotToCard[slot]);
+        assertEquals(0, dealer.conflictingClaims(0));
+    }
+
+    @Test
+    void removeCardsFromTable_LaterOverlappingClaimConflicts() {
+        int[] set = dealTableWithSet();
+        int[] overlapping = new int[set.length]; // shares only its first card with the set
+        overlapping[0] = set[0];
+        for (int slot = 0, i = 1; i < overlapping.length; ++slot)
+            if (!contains(set, slot)) overlapping[i++] = slot;
+        long version = table.version();
+        claim(0, set, 100, version);
+        claim(1, overlapping, 200, version);
+
+        dealer.removeCardsFromTable();
+        assertEquals(1, players[0].state);
+        assertEquals(0, players[1].state); // rejected without a penalty, whether or not it was a set
+        assertEquals(1, players[1].setChecked);
+        assertEquals(1, dealer.conflictingClaims(1));
+        assertEquals(0, dealer.staleClaims(1));
+    }
+
+    @Test
+    void removeCardsFromTable_OlderSlotVersionIsStale() {
+        int[] set = dealTableWithSet();
+        claim(0, set, 100, table.version());
+        int card = table.slotToCard[set[1]];
+        table.removeCard(set[1]); // the slot changes after the player's snapshot
+        table.placeCard(card, set[1]);
+
+        dealer.removeCardsFromTable();
+        assertEquals(0, players[0].state);
+        assertEquals(1, players[0].setChecked);
+        assertEquals(1, dealer.staleClaims(0));
+        assertEquals(0, dealer.conflictingClaims(0));
+        assertEquals(card, table.slotToCard[set[1]]); // nothing was taken
+    }
+
+    private static boolean contains(int[] values, int value) {
+        return Arrays.stream(values).anyMatch(v -> v == value);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package bguspl.set.ex;
+
+import bguspl.set.VirtualClock;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DecisionBudgetTest {
+
+    private static long work(DecisionBudget budget) {
+        long sum = 0;
+        for (int i = 0; i < 10_000_000 && !budget.exceeded(); ++i)
+            sum += i;
+        return sum;
+    }
+
+    @Test
+    void exceeded_SmallBudget() {
+        DecisionBudget budget = new DecisionBudget(1000);
+        budget.start();
+        work(budget);
+        assertTrue(budget.exceeded());
+        assertTrue(budget.usedNanos() > budget.limitNanos());
+        assertTrue(budget.remainingNanos() < 0);
+    }
+
+    @Test
+    void exceeded_OnClock() throws InterruptedException {
+        VirtualClock clock = new VirtualClock();
+        clock.threadStarting(); // the test thread is the clock's only game thread, so its sleeps take no real time
+        clock.threadStarted();
+        DecisionBudget budget = new DecisionBudget(TimeUnit.SECONDS.toNanos(1), clock);
+        budget.start();
+
+        clock.sleep(400);
+        assertFalse(budget.exceeded());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(400), budget.usedNanos());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(600), budget.remainingNanos());
+
+        clock.sleep(TimeUnit.HOURS.toMillis(1));
+        assertTrue(budget.exceeded());
+        assertTrue(budget.remainingNanos() < 0);
+        clock.threadEnded();
+    }
+}
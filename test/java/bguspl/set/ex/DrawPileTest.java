@@ -0,0 +1,53 @@
+package bguspl.set.ex;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DrawPileTest {
+
+    private static int[] drawAll(DrawPile pile) {
+        int[] cards = new int[pile.size()];
+        for (int i = 0; i < cards.length; ++i)
+            cards[i] = pile.draw();
+        return cards;
+    }
+
+    @Test
+    void draw_EveryCardOnce() {
+        DrawPile pile = new DrawPile(81, 7);
+        boolean[] drawn = new boolean[81];
+        for (int card : drawAll(pile)) {
+            assertFalse(drawn[card]);
+            drawn[card] = true;
+        }
+        assertEquals(Table.EMPTY, pile.draw());
+        assertEquals(81, pile.onTable());
+    }
+
+    @Test
+    void draw_SameSeedSameGame() {
+        assertArrayEquals(drawAll(new DrawPile(81, 7)), drawAll(new DrawPile(81, 7)));
+    }
+
+    @Test
+    void discardAndPutBack() {
+        DrawPile pile = new DrawPile(9, 1);
+        int first = pile.draw();
+        int second = pile.draw();
+        assertTrue(pile.isDrawn(first));
+
+        pile.discard(first);
+        pile.putBack(second);
+        assertFalse(pile.isDrawn(first));
+        assertFalse(pile.inPile(first));
+        assertTrue(pile.inPile(second));
+        assertEquals(8, pile.size());
+        assertEquals(8, pile.remaining());
+        assertThrows(IllegalStateException.class, () -> pile.discard(first));
+    }
+}
@@ -0,0 +1,61 @@
+package bguspl.set.ex;
+
+import bguspl.set.Env;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GuaranteedSetDealingTest {
+
+    private Env env;
+    private Table table;
+
+    private DrawPile setUp(long seed) {
+        env = TestEnv.smallTable();
+        table = new Table(env);
+        DrawPile pile = new DrawPile(env.config.deckSize, seed);
+        // a table with no legal set: 0, 1 and 3 differ in the last two features only
+        int[] cards = {pile.draw(0), pile.draw(1), pile.draw(3)};
+        table.placeCards(cards, new int[]{0, 1, 2});
+        assertFalse(table.hasSets());
+        return pile;
+    }
+
+    private boolean hasSet(int[] cards) {
+        return !env.util.findSets(Arrays.stream(cards).boxed().collect(Collectors.toList()), 1).isEmpty();
+    }
+
+    @Test
+    void deal_CompletesASet() {
+        for (long seed = 0; seed < 20; ++seed) {
+            DrawPile pile = setUp(seed);
+            int[] drawn = new GuaranteedSetDealing(env, pile, table).deal(1);
+            assertEquals(1, drawn.length);
+            assertTrue(pile.isDrawn(drawn[0]));
+            assertTrue(hasSet(new int[]{0, 1, 3, drawn[0]}));
+            assertEquals(4, pile.onTable());
+            assertEquals(env.config.deckSize - 4, pile.size());
+        }
+    }
+
+    @Test
+    void deal_TopCardsWhenTableHasSet() {
+        DrawPile pile = setUp(3);
+        table.removeCard(2);
+        pile.putBack(3);
+        table.placeCard(pile.draw(2), 2); // 0, 1, 2 is a set
+
+        DrawPile same = new DrawPile(env.config.deckSize, 3);
+        same.draw(0);
+        same.draw(1);
+        same.draw(3);
+        same.putBack(3);
+        same.draw(2);
+        assertEquals(same.draw(), new GuaranteedSetDealing(env, pile, table).deal(1)[0]);
+    }
+}
@@ -0,0 +1,55 @@
+package bguspl.set.ex;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeyQueueTest {
+
+    @Test
+    void offer_FullQueue() {
+        KeyQueue queue = new KeyQueue(3);
+        int offered = 0;
+        while (queue.offer(offered)) ++offered;
+        assertTrue(offered >= 3);
+        assertEquals(offered, queue.size());
+        assertFalse(queue.offer(0));
+    }
+
+    @Test
+    void take_InOrder() throws InterruptedException {
+        KeyQueue queue = new KeyQueue(3);
+        queue.offer(4);
+        queue.offer(7);
+        assertEquals(4, queue.take());
+        assertEquals(7, queue.take());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void clear_DropsPresses() {
+        KeyQueue queue = new KeyQueue(3);
+        queue.offer(1);
+        queue.offer(2);
+        queue.clear();
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void put_WaitsForConsumer() throws InterruptedException {
+        KeyQueue queue = new KeyQueue(2);
+        int presses = 10000;
+        Thread producer = new Thread(() -> {
+            try {
+                for (int i = 0; i < presses; ++i)
+                    queue.put(i % 12);
+            } catch (InterruptedException ignored) {}
+        });
+        producer.start();
+        for (int i = 0; i < presses; ++i)
+            assertEquals(i % 12, queue.take());
+        producer.join();
+    }
+}
@@ -0,0 +1,19 @@
+package bguspl.set.ex;
+
+import java.util.Random;
+
+/**
+ * A strategy that never presses a key, registered as a service in the test resources (see BotStrategyTest).
+ */
+public class PassingStrategy implements BotStrategy {
+
+    @Override
+    public String name() {
+        return "passing";
+    }
+
+    @Override
+    public int[] decide(TableView table, int[] tokens, Random random, DecisionBudget budget) {
+        return new int[0];
+    }
+}
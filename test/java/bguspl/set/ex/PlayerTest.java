@@ -14,6 +14,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.util.logging.Logger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
@@ -23,6 +24,7 @@ import static org.mockito.Mockito.when;
 class PlayerTest {
 
     Player player;
+    private Env env;
     @Mock
     Util util;
     @Mock
@@ -42,7 +44,7 @@ class PlayerTest {
     @BeforeEach
     void setUp() {
         // purposely do not find the configuration files (use defaults here).
-        Env env = new Env(logger, new Config(logger, (String) null), ui, util);
+        env = new Env(logger, new Config(logger, (String) null), ui, util);
         player = new Player(env, dealer, table, 0, false);
         assertInvariants();
     }
@@ -81,11 +83,60 @@ class PlayerTest {
 
     @Test
     void keyPressed() {
-        int afterPlacing = player.actions.size() + 1;
+        player = new Player(env, dealer, table, 0, true);
+        int actions = player.actions.size();
+        player.keyPressed(1);
+        assertEquals(1, player.keyPresses.size());
+        assertEquals(actions, player.actions.size()); // applied later by the player thread
+    }
+
+    @Test
+    void keyPressed_ComputerPlayer() {
+        player.keyPressed(1); // the keyboard is mapped to a player its AI presses for
+        assertEquals(0, player.keyPresses.size());
+    }
+
+    @Test
+    void keyPressed_WhileFrozen() {
+        player = new Player(env, dealer, table, 0, true);
+        player.penalty();
+        assertTrue(player.isFrozen());
         player.keyPressed(1);
+        assertEquals(0, player.keyPresses.size());
+    }
+
+    /**
+     * Replaces the player with one that plays on a real table (applying key presses reads the table's cards).
+     */
+    private Table playOnRealTable() {
+        Table realTable = new Table(env);
+        player = new Player(env, dealer, realTable, 0, false);
+        return realTable;
+    }
+
+    @Test
+    void applyKeyPress() {
+        playOnRealTable().placeCard(5, 1);
+        int afterPlacing = player.actions.size() + 1;
+        player.applyKeyPress(1, System.nanoTime());
         assertEquals(afterPlacing, player.actions.size());
         int afterRemoving = player.actions.size() - 1;
-        player.keyPressed(1);
+        player.applyKeyPress(1, System.nanoTime());
         assertEquals(afterRemoving, player.actions.size());
     }
+
+    @Test
+    void applyKeyPress_ClaimWithEmptySlot() {
+        Table realTable = playOnRealTable();
+        for (int slot = 0; slot < player.numOfActions; ++slot)
+            realTable.placeCard(slot, slot);
+        for (int slot = 0; slot < player.numOfActions - 1; ++slot)
+            player.applyKeyPress(slot, System.nanoTime());
+        realTable.removeCard(0); // taken by another player's set before the last press
+
+        player.applyKeyPress(player.numOfActions - 1, System.nanoTime());
+        assertEquals(player.numOfActions - 1, player.actions.size());
+        assertFalse(player.actions.contains(0));
+        assertTrue(realTable.sets.isEmpty());
+    }
 }
\ No newline at end of file
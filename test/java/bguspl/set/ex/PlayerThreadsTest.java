@@ -0,0 +1,49 @@
+package bguspl.set.ex;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PlayerThreadsTest {
+
+    private static void assertRunsLoops(String playerThreads) throws InterruptedException {
+        PlayerThreads threads = PlayerThreads.create(TestEnv.create("PlayerThreads", playerThreads), 2);
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        String[] names = new String[2];
+        for (int i = 0; i < 2; ++i) {
+            int loop = i;
+            threads.start(() -> {
+                names[loop] = Thread.currentThread().getName();
+                started.countDown();
+                try {
+                    release.await(); // both loops block at the same time
+                } catch (InterruptedException ignored) {}
+            }, "loop-" + i);
+        }
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        release.countDown();
+        threads.shutdown();
+        assertEquals("loop-0", names[0]);
+        assertEquals("loop-1", names[1]);
+    }
+
+    @Test
+    void platform_RunsLoops() throws InterruptedException {
+        assertRunsLoops("platform");
+    }
+
+    @Test
+    void virtual_RunsLoopsOnAnyRuntime() throws InterruptedException {
+        assertRunsLoops("virtual");
+    }
+
+    @Test
+    void pooled_RunsBlockingLoopsTogether() throws InterruptedException {
+        assertRunsLoops("pooled");
+    }
+}
@@ -0,0 +1,57 @@
+package bguspl.set.ex;
+
+import bguspl.set.Env;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SetCounterTest {
+
+    Env env;
+    SetCounter counter;
+    List<Integer> deck;
+
+    @BeforeEach
+    void setUp() {
+        env = TestEnv.create();
+        counter = new SetCounter(env);
+        deck = IntStream.range(0, env.config.deckSize).boxed().collect(Collectors.toList());
+        deck.forEach(counter::add);
+    }
+
+    @Test
+    void count_FullDeck() {
+        assertEquals(81 * 80 / 6, counter.count());
+        assertTrue(counter.hasSets());
+    }
+
+    @Test
+    void remove_MatchesFindSets() {
+        Collections.shuffle(deck, new Random(7));
+        while (!deck.isEmpty()) {
+            counter.remove(deck.remove(deck.size() - 1));
+            assertEquals(env.util.findSets(deck, Integer.MAX_VALUE).size(), counter.count());
+        }
+        assertFalse(counter.hasSets());
+    }
+
+    @Test
+    void add_IgnoresCardsAlreadyCounted() {
+        long expected = counter.count();
+        counter.add(5);
+        assertEquals(expected, counter.count());
+        counter.remove(5);
+        counter.remove(5);
+        counter.add(5);
+        assertEquals(expected, counter.count());
+    }
+}
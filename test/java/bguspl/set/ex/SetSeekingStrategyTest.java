@@ -0,0 +1,87 @@
+package bguspl.set.ex;
+
+import bguspl.set.Env;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SetSeekingStrategyTest {
+
+    private Env env;
+    private Table table;
+    private int[] tokens = new int[0];
+    private final DecisionBudget budget = new DecisionBudget(Long.MAX_VALUE);
+
+    private SetSeekingStrategy strategy(String errorRate) {
+        return strategy(errorRate, "0");
+    }
+
+    private SetSeekingStrategy strategy(String errorRate, String reactionSeconds) {
+        env = TestEnv.smallTable("ComputerReactionSeconds", reactionSeconds, "ComputerReactionDeviationSeconds", "0",
+                "ComputerErrorRate", errorRate);
+        table = new Table(env);
+        SetSeekingStrategy strategy = new SetSeekingStrategy();
+        strategy.init(env, 0);
+        return strategy;
+    }
+
+    @Test
+    void nextPresses_NoSet() throws InterruptedException {
+        SetSeekingStrategy strategy = strategy("0");
+        table.placeCard(0, 0);
+        table.placeCard(1, 1);
+        assertEquals(0, strategy.decide(new TableView(table), tokens, new Random(0), budget).length);
+    }
+
+    @Test
+    void nextPresses_PressesTheSet() throws InterruptedException {
+        SetSeekingStrategy strategy = strategy("0");
+        table.placeCard(0, 0);
+        table.placeCard(1, 3);
+        table.placeCard(2, 1);
+        table.placeCard(4, 2);
+        tokens = new int[]{2}; // not part of the set, so it is removed first
+
+        int[] presses = strategy.decide(new TableView(table), tokens, new Random(0), budget);
+        assertEquals(2, presses[0]);
+        int[] slots = Arrays.copyOfRange(presses, 1, presses.length);
+        Arrays.sort(slots);
+        assertArrayEquals(new int[]{0, 1, 3}, slots);
+    }
+
+    @Test
+    void reactionMillis_NotPartOfTheDecision() throws InterruptedException {
+        SetSeekingStrategy strategy = strategy("0", "2");
+        table.placeCard(0, 0);
+        table.placeCard(1, 3);
+        table.placeCard(2, 1);
+        DecisionBudget small = new DecisionBudget(TimeUnit.MILLISECONDS.toNanos(500));
+
+        assertEquals(2000, strategy.reactionMillis(new Random(0)));
+        small.start();
+        assertEquals(3, strategy.decide(new TableView(table), tokens, new Random(0), small).length);
+        assertFalse(small.exceeded());
+    }
+
+    @Test
+    void nextPresses_Mistake() throws InterruptedException {
+        SetSeekingStrategy strategy = strategy("1");
+        table.placeCard(0, 0);
+        table.placeCard(1, 3);
+        table.placeCard(2, 1);
+        table.placeCard(4, 2);
+
+        int[] slots = strategy.decide(new TableView(table), tokens, new Random(0), budget);
+        assertEquals(3, slots.length);
+        assertTrue(Arrays.stream(slots).anyMatch(slot -> slot == 2));
+        int[] cards = Arrays.stream(slots).map(slot -> table.slotToCard[slot]).toArray();
+        assertFalse(env.util.testSet(cards));
+    }
+}
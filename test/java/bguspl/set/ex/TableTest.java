@@ -1,5 +1,6 @@
 package bguspl.set.ex;
 
+import bguspl.set.CardStore;
 import bguspl.set.Config;
 import bguspl.set.Env;
 import bguspl.set.UserInterface;
@@ -7,17 +8,30 @@ import bguspl.set.Util;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Properties;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class TableTest {
 
     Table table;
-    private Integer[] slotToCard;
-    private Integer[] cardToSlot;
+    private int[] slotToCard;
+    private int[] cardToSlot;
+
+    private Table tableWithSetIndex() {
+        return tableWithSetIndex("3");
+    }
+
+    private Table tableWithSetIndex(String featureSize) {
+        return new Table(TestEnv.smallTable("FeatureSize", featureSize));
+    }
 
     @BeforeEach
     void setUp() {
@@ -32,34 +46,32 @@ class TableTest {
         properties.put("PlayerKeys2", "85,73,79,80");
         MockLogger logger = new MockLogger();
         Config config = new Config(logger, properties);
-        slotToCard = new Integer[config.tableSize];
-        cardToSlot = new Integer[config.deckSize];
+        slotToCard = new int[config.tableSize];
+        cardToSlot = new int[config.deckSize];
+        Arrays.fill(slotToCard, Table.EMPTY);
+        Arrays.fill(cardToSlot, Table.EMPTY);
 
         Env env = new Env(logger, config, new MockUserInterface(), new MockUtil());
         table = new Table(env, slotToCard, cardToSlot);
     }
 
     private int fillSomeSlots() {
-        slotToCard[1] = 3;
-        slotToCard[2] = 5;
-        cardToSlot[3] = 1;
-        cardToSlot[5] = 2;
+        table.placeCard(3, 1);
+        table.placeCard(5, 2);
 
         return 2;
     }
 
     private void fillAllSlots() {
-        for (int i = 0; i < slotToCard.length; ++i) {
-            slotToCard[i] = i;
-            cardToSlot[i] = i;
-        }
+        for (int i = 0; i < slotToCard.length; ++i)
+            table.placeCard(i, i);
     }
 
     private void placeSomeCardsAndAssert() throws InterruptedException {
         table.placeCard(8, 2);
 
-        assertEquals(8, (int) slotToCard[2]);
-        assertEquals(2, (int) cardToSlot[8]);
+        assertEquals(8, slotToCard[2]);
+        assertEquals(2, cardToSlot[8]);
     }
 
     @Test
@@ -82,6 +94,22 @@ class TableTest {
         assertEquals(slotToCard.length, table.countCards());
     }
 
+    @Test
+    void emptySlots_TrackedByPlaceAndRemove() {
+        fillSomeSlots();
+        int[] empty = table.emptySlots();
+        Arrays.sort(empty);
+        assertArrayEquals(new int[]{0, 3}, empty);
+
+        table.removeCard(1);
+        table.placeCard(8, 2); // replaces card 5
+        empty = table.emptySlots();
+        Arrays.sort(empty);
+        assertArrayEquals(new int[]{0, 1, 3}, empty);
+        assertEquals(1, table.countCards());
+        assertEquals(Table.EMPTY, cardToSlot[5]);
+    }
+
     @Test
     void placeCard_SomeSlotsAreFilled() throws InterruptedException {
 
@@ -101,8 +129,8 @@ class TableTest {
         int removedCard = slotToCard[1];
         table.removeCard(1);
 
-        assertEquals(null, (Integer) slotToCard[1]);
-        assertEquals(null, (Integer) cardToSlot[removedCard]);
+        assertEquals(Table.EMPTY, slotToCard[1]);
+        assertEquals(Table.EMPTY, cardToSlot[removedCard]);
     }
 
     @Test
@@ -119,6 +147,145 @@ class TableTest {
 
 
 
+    @Test
+    void countSets_NoSlotsAreFilled() {
+
+        assertEquals(0, table.countSets());
+        assertFalse(table.hasSets());
+    }
+
+    @Test
+    void countSets_SetIsPlaced() {
+        Table indexed = tableWithSetIndex();
+        indexed.placeCard(0, 0);
+        indexed.placeCard(1, 1);
+        indexed.placeCard(80, 3);
+        assertEquals(0, indexed.countSets());
+
+        indexed.placeCard(2, 2); // completes 0, 1, 2
+        assertEquals(1, indexed.countSets());
+        assertTrue(indexed.hasSets());
+        assertEquals(1, indexed.setsContaining(1).size());
+        assertEquals(0, indexed.setsContaining(3).size());
+        assertArrayEquals(new int[]{2, 0, 1}, indexed.legalSets().get(0));
+    }
+
+    @Test
+    void countSets_PairsAreIndexed() {
+        Table indexed = tableWithSetIndex("2");
+        for (int slot = 0; slot < 4; ++slot)
+            indexed.placeCard(slot, slot);
+        assertEquals(6, indexed.countSets()); // with two values per feature, every pair of cards is a legal set
+        assertEquals(3, indexed.setsContaining(0).size());
+        assertEquals(6, indexed.legalSets().size());
+
+        indexed.removeCard(0);
+        assertEquals(3, indexed.countSets());
+        assertTrue(indexed.hasSets());
+    }
+
+    @Test
+    void countSets_SetIsRemoved() {
+        Table indexed = tableWithSetIndex();
+        indexed.placeCard(0, 0);
+        indexed.placeCard(1, 1);
+        indexed.placeCard(2, 2);
+        indexed.removeCard(1);
+        assertEquals(0, indexed.countSets());
+        assertEquals(0, indexed.setsContaining(0).size());
+
+        indexed.placeCard(1, 3);
+        assertEquals(1, indexed.countSets());
+        assertEquals(1, indexed.setsContaining(3).size());
+    }
+
+    @Test
+    void countSets_CardsGivenToTheConstructor() {
+        Env env = TestEnv.smallTable();
+        int[] slots = new int[env.config.tableSize];
+        int[] cards = new int[env.config.deckSize];
+        Arrays.fill(slots, Table.EMPTY);
+        Arrays.fill(cards, Table.EMPTY);
+        int[] onTable = {1, 80, 2, 0}; // 0, 1, 2 is the only legal set
+        for (int slot = 0; slot < onTable.length; ++slot) {
+            slots[slot] = onTable[slot];
+            cards[onTable[slot]] = slot;
+        }
+
+        Table prefilled = new Table(env, slots, cards);
+        assertEquals(1, prefilled.countSets());
+        assertEquals(1, prefilled.solution().size());
+        assertEquals(1, prefilled.setsContaining(3).size());
+        assertEquals(0, prefilled.setsContaining(1).size());
+        assertEquals(80, slots[1]);
+        assertEquals(3, cards[0]);
+
+        prefilled.removeCard(0);
+        assertFalse(prefilled.hasSets());
+    }
+
+    @Test
+    void solution_PublishedOncePerChange() {
+        Table indexed = tableWithSetIndex();
+        indexed.placeCard(0, 0);
+        indexed.placeCard(1, 1);
+        TableSolution before = indexed.solution();
+        assertEquals(0, before.size());
+
+        indexed.placeCard(2, 3);
+        TableSolution after = indexed.solution();
+        assertEquals(1, after.size());
+        assertEquals(indexed.version(), after.snapshot().version());
+        assertArrayEquals(new int[]{3, 0, 1}, after.slots(0));
+        assertArrayEquals(new int[]{2, 0, 1}, after.cards(0));
+        assertEquals(0, before.size());
+        assertEquals(after, indexed.solution());
+    }
+
+    @Test
+    void placeCards_OneChange() {
+        Table indexed = tableWithSetIndex();
+        long version = indexed.version();
+        indexed.placeCards(new int[]{0, 1, 2}, new int[]{3, 1, 0});
+        assertEquals(version + 1, indexed.version());
+        assertEquals(3, indexed.countCards());
+        assertEquals(1, indexed.countSets());
+        assertEquals(1, indexed.solution().size());
+
+        indexed.removeCards(new int[]{0, 3});
+        assertEquals(version + 2, indexed.version());
+        assertEquals(1, indexed.countCards());
+        assertEquals(0, indexed.countSets());
+        assertTrue(indexed.isStale(new int[]{0}, version + 1));
+        assertFalse(indexed.isStale(new int[]{1}, version + 1));
+    }
+
+    @Test
+    void snapshot_IsNotChangedByTable() {
+        fillSomeSlots();
+        TableSnapshot snapshot = table.snapshot();
+        assertEquals(3, snapshot.card(1));
+        assertEquals(Table.EMPTY, snapshot.card(3));
+        assertEquals(table.version(), snapshot.version());
+
+        table.placeCard(8, 3);
+        assertEquals(Table.EMPTY, snapshot.card(3));
+        assertEquals(8, table.snapshot().card(3));
+        assertTrue(table.snapshot().slotVersion(3) > snapshot.version());
+    }
+
+    @Test
+    void isStale_OnlyWhenClaimedSlotChanged() {
+        fillSomeSlots();
+        long version = table.snapshot().version();
+        assertFalse(table.isStale(new int[]{1, 2}, version));
+
+        table.placeCard(8, 3);
+        assertFalse(table.isStale(new int[]{1, 2}, version));
+        table.removeCard(2);
+        assertTrue(table.isStale(new int[]{1, 2}, version));
+    }
+
     static class MockUserInterface implements UserInterface {
         @Override
         public void dispose() {}
@@ -162,11 +329,26 @@ class TableTest {
             return false;
         }
 
+        @Override
+        public int completeSet(int[] cards) {
+            return -1;
+        }
+
         @Override
         public List<int[]> findSets(List<Integer> deck, int count) {
             return null;
         }
 
+        @Override
+        public List<int[]> findSets(CardStore deck, int count) {
+            return null;
+        }
+
+        @Override
+        public Stream<int[]> streamSets(CardStore deck) {
+            return Stream.empty();
+        }
+
         @Override
         public void spin() {}
     }
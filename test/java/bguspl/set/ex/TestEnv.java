@@ -0,0 +1,41 @@
+package bguspl.set.ex;
+
+import bguspl.set.Config;
+import bguspl.set.Env;
+import bguspl.set.UtilImpl;
+
+import java.util.Properties;
+
+/**
+ * Builds the game environments of the tests: a configuration with the given properties (and the defaults for the
+ * rest), the mock logger and user interface of TableTest and the real utilities.
+ */
+final class TestEnv {
+
+    private TestEnv() {}
+
+    /**
+     * @param keysAndValues - property keys and values, alternately.
+     * @return - an environment with the given properties.
+     */
+    static Env create(String... keysAndValues) {
+        Properties properties = new Properties();
+        for (int i = 0; i + 1 < keysAndValues.length; i += 2)
+            properties.put(keysAndValues[i], keysAndValues[i + 1]);
+        TableTest.MockLogger logger = new TableTest.MockLogger();
+        Config config = new Config(logger, properties);
+        return new Env(logger, config, new TableTest.MockUserInterface(), new UtilImpl(config));
+    }
+
+    /**
+     * @param keysAndValues - property keys and values, alternately (they may override the small table's).
+     * @return - an environment with a table of 2 by 2 slots that shows cards right away, and the given properties.
+     */
+    static Env smallTable(String... keysAndValues) {
+        String[] all = new String[6 + keysAndValues.length];
+        String[] table = {"Rows", "2", "Columns", "2", "TableDelaySeconds", "0"};
+        System.arraycopy(table, 0, all, 0, table.length);
+        System.arraycopy(keysAndValues, 0, all, table.length, keysAndValues.length);
+        return create(all);
+    }
+}
@@ -0,0 +1,44 @@
+package bguspl.set.ex;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBufferTest {
+
+    @Test
+    void addRemove() {
+        TokenBuffer tokens = new TokenBuffer(3, 12);
+        assertTrue(tokens.add(4));
+        assertTrue(tokens.add(7));
+        assertFalse(tokens.add(4));
+        assertTrue(tokens.add(9));
+        assertTrue(tokens.isFull());
+
+        assertTrue(tokens.remove(4));
+        assertFalse(tokens.contains(4));
+        int[] slots = tokens.toArray();
+        Arrays.sort(slots);
+        assertArrayEquals(new int[]{7, 9}, slots);
+    }
+
+    @Test
+    void toArray_IsNotChangedByLaterWrites() {
+        TokenBuffer tokens = new TokenBuffer(3, 12);
+        tokens.add(1);
+        tokens.add(2);
+        int[] before = tokens.toArray();
+        tokens.remove(1);
+        tokens.add(5);
+        tokens.clear();
+
+        assertArrayEquals(new int[]{1, 2}, before);
+        assertEquals(0, tokens.toArray().length);
+        assertEquals(0, tokens.size());
+    }
+}